@@ -16,17 +16,28 @@
 
 package roll.automata;
 
+import java.util.Arrays;
+
 import roll.words.Alphabet;
 import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * The transitions of a DFA are stored in a dense table, the successor
+ * of state s over letter a is at position s * stride + a, and -1 means
+ * that the transition is undefined
  * */
 
 public class DFA extends NFA {
     
+    private int[] table;
+    private int stride;
+    
     public DFA(final Alphabet alphabet) {
         super(alphabet);
+        this.stride = alphabet.getLetterSize();
+        this.table = new int[0];
     }
 
     @Override
@@ -40,7 +51,9 @@ public class DFA extends NFA {
     }
     
     public int getSuccessor(int state, int letter) {
-        return getState(state).getSuccessor(letter);
+        assert checkValidState(state) && checkValidLetter(letter);
+        if(letter >= stride) return -1;
+        return table[state * stride + letter];
     }
     
     public int getSuccessor(int state, Word word) {
@@ -52,5 +65,39 @@ public class DFA extends NFA {
         }
         return currState;
     }
+    
+    // -------------------------------------------
+    @Override
+    protected StateNFA makeState(int index) {
+        ensureCapacity(index + 1, stride);
+        return new StateDFA(this, index);
+    }
+    
+    void setSuccessor(int state, int letter, int succ) {
+        if(letter >= stride) {
+            // letters have been added to the alphabet after construction
+            ensureCapacity(getStateSize(), getAlphabetSize());
+        }
+        table[state * stride + letter] = succ;
+        modified();
+    }
+    
+    private void ensureCapacity(int numStates, int numLetters) {
+        if(numLetters != stride) {
+            int[] result = new int[Math.max(numStates, getStateSize()) * numLetters * 2];
+            Arrays.fill(result, -1);
+            for(int state = 0; state < getStateSize(); state ++) {
+                System.arraycopy(table, state * stride, result, state * numLetters, stride);
+            }
+            table = result;
+            stride = numLetters;
+            return;
+        }
+        if(numStates * stride <= table.length) return;
+        int length = Math.max(numStates * stride, table.length * 2);
+        int oldLength = table.length;
+        table = Arrays.copyOf(table, length);
+        Arrays.fill(table, oldLength, length, -1);
+    }
 
 }
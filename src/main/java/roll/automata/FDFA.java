@@ -18,8 +18,9 @@ package roll.automata;
 
 import java.util.List;
 
+import dk.brics.automaton.Automaton;
+import roll.automata.operations.FDFALassoAcceptance;
 import roll.automata.operations.FDFAOperations;
-import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.words.Word;
 
@@ -30,11 +31,47 @@ import roll.words.Word;
  * */
 public class FDFA extends FFA<DFA, DFA> {
     
+    // D1 and D2 are built when they are needed, and kept as long as
+    // none of the DFAs is modified
+    private Automaton dOne;
+    private Automaton dTwo;
+    private long dollarVersion = -1;
+    
     public FDFA(DFA m, List<DFA> ps) {
         super(m, ps);
         acceptance = new AcceptFDFA(this);
     }
     
+    // the returned automata are shared, so they should not be modified
+    public synchronized Automaton getDOne() {
+        checkDollarVersion();
+        if(dOne == null) {
+            dOne = FDFAOperations.buildDOne(this);
+        }
+        return dOne;
+    }
+    
+    public synchronized Automaton getDTwo() {
+        checkDollarVersion();
+        if(dTwo == null) {
+            dTwo = FDFAOperations.buildDTwo(this);
+        }
+        return dTwo;
+    }
+    
+    private void checkDollarVersion() {
+        // versions only increase, so does their sum
+        long version = leadingFA.getVersion();
+        for(DFA progressFA : progressFAs) {
+            version += progressFA.getVersion();
+        }
+        if(version != dollarVersion) {
+            dOne = null;
+            dTwo = null;
+            dollarVersion = version;
+        }
+    }
+    
     // --------------------------------------------------
     @Override
     public AutType getAccType() {
@@ -58,10 +95,8 @@ public class FDFA extends FFA<DFA, DFA> {
         @Override
         public boolean accept(Word prefix, Word period) {
             if(! isNormalized(prefix, period) ) {
-                Pair<Word, Word> pair = FDFAOperations.normalize(fdfa, prefix, period);
-                if(pair == null) return false;
-                prefix = pair.getLeft();
-                period = pair.getRight();
+                // some normalized decomposition should be accepted
+                return FDFALassoAcceptance.accepts(fdfa, prefix, period);
             }
             int state = leadingFA.getSuccessor(prefix);
             DFA proDFA = getProgressFA(state);
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import roll.jupyter.NativeTool;
+import roll.util.IntIterator;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -100,11 +101,11 @@ public abstract class FFA<M extends NFA, A extends NFA> implements Acceptor {
     }
     
     public boolean isNormalized(Word prefix, Word period) {
-        for(int state : leadingFA.getSuccessors(prefix)) {
-            for(int nextState : leadingFA.getSuccessors(state, period)) {
-                if(state == nextState) {
-                    return true;
-                }
+        IntIterator stateIter = leadingFA.getSuccessors(prefix).intIterator();
+        while(stateIter.hasNext()) {
+            int state = stateIter.nextInt();
+            if(leadingFA.getSuccessors(state, period).get(state)) {
+                return true;
             }
         }
         return false;
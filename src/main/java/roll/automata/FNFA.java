@@ -19,6 +19,7 @@ package roll.automata;
 import java.util.List;
 
 import roll.automata.operations.FNFAOperations;
+import roll.util.IntIterator;
 import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.words.Word;
@@ -61,8 +62,9 @@ public class FNFA extends FFA<NFA, DFA> {
                 period = pair.getRight();
             }
             NFA nfa = fnfa.getLeadingFA();
-            for(int state : nfa.getSuccessors(period)) {
-                NFA proNFA = getProgressFA(state);
+            IntIterator stateIter = nfa.getSuccessors(period).intIterator();
+            while(stateIter.hasNext()) {
+                NFA proNFA = getProgressFA(stateIter.nextInt());
                 boolean found = proNFA.getAcc().accept(period);
                 if(found) return true;
             }
@@ -0,0 +1,175 @@
+/* Copyright (c) 2018 -                                                   */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata;
+
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+import roll.words.Alphabet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Immutable compressed-sparse-row (CSR) snapshot of an NFA for read-only
+ * algorithms. The successors of state s over letter a are the targets at
+ * the indices [getSuccessorBegin(s, a), getSuccessorEnd(s, a)), in
+ * ascending order, and final states are kept in a packed bitmap.
+ * 
+ * Obtained by NFA.freeze(), it does not reflect later modifications of
+ * the NFA.
+ * */
+
+public final class FrozenNFA {
+    
+    private final NFA nfa;
+    private final int numStates;
+    private final int numLetters;
+    private final int initialState;
+    private final int[] offsets; // state * numLetters + letter -> first index in targets
+    private final int[] targets;
+    private final long[] finals;
+    
+    FrozenNFA(NFA nfa) {
+        this.nfa = nfa;
+        this.numStates = nfa.getStateSize();
+        this.numLetters = nfa.getAlphabetSize();
+        this.initialState = nfa.getInitialState();
+        this.offsets = new int[numStates * numLetters + 1];
+        // first count the transitions
+        int numTrans = 0;
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                offsets[state * numLetters + letter] = numTrans;
+                numTrans += nfa.getSuccessors(state, letter).cardinality();
+            }
+        }
+        offsets[numStates * numLetters] = numTrans;
+        this.targets = new int[numTrans];
+        int index = 0;
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                for(final int succ : nfa.getSuccessors(state, letter)) {
+                    targets[index ++] = succ;
+                }
+            }
+        }
+        this.finals = new long[(numStates + 63) >>> 6];
+        nfa.finalStates.forEachInt(fin -> {
+            if(fin < numStates) {
+                finals[fin >>> 6] |= 1L << fin;
+            }
+        });
+    }
+    
+    // the automaton from which this snapshot has been taken
+    public NFA getNFA() {
+        return nfa;
+    }
+    
+    public Alphabet getAlphabet() {
+        return nfa.getAlphabet();
+    }
+    
+    public int getStateSize() {
+        return numStates;
+    }
+    
+    public int getAlphabetSize() {
+        return numLetters;
+    }
+    
+    public int getTransitionSize() {
+        return targets.length;
+    }
+    
+    public int getInitialState() {
+        return initialState;
+    }
+    
+    public boolean isInitial(int state) {
+        return state == initialState;
+    }
+    
+    public boolean isFinal(int state) {
+        assert state >= 0 && state < numStates;
+        return (finals[state >>> 6] & (1L << state)) != 0;
+    }
+    
+    public ISet getFinalStates() {
+        ISet result = UtilISet.newISet();
+        for(int i = 0; i < finals.length; i ++) {
+            long word = finals[i];
+            while(word != 0) {
+                result.set((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+    
+    // -------------------------------------------
+    public int getSuccessorBegin(int state, int letter) {
+        return offsets[state * numLetters + letter];
+    }
+    
+    public int getSuccessorEnd(int state, int letter) {
+        return offsets[state * numLetters + letter + 1];
+    }
+    
+    public int getSuccessorAt(int index) {
+        return targets[index];
+    }
+    
+    // all outgoing transitions of state are in [getOutBegin(state), getOutEnd(state))
+    public int getOutBegin(int state) {
+        return offsets[state * numLetters];
+    }
+    
+    public int getOutEnd(int state) {
+        return offsets[(state + 1) * numLetters];
+    }
+    
+    // the letter of the outgoing transition of state at index
+    public int getLetterAt(int state, int index) {
+        assert index >= getOutBegin(state) && index < getOutEnd(state);
+        // binary search for the last letter whose first index is not greater than index
+        int low = 0, high = numLetters - 1;
+        final int base = state * numLetters;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(offsets[base + mid] <= index) {
+                low = mid;
+            }else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+    
+    public boolean hasSuccessor(int state, int letter) {
+        return getSuccessorBegin(state, letter) < getSuccessorEnd(state, letter);
+    }
+    
+    public ISet getSuccessors(int state, int letter) {
+        ISet result = UtilISet.newISet();
+        final int end = getSuccessorEnd(state, letter);
+        for(int index = getSuccessorBegin(state, letter); index < end; index ++) {
+            result.set(targets[index]);
+        }
+        return result;
+    }
+
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import roll.jupyter.NativeTool;
+import roll.util.IntIterator;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
 import roll.words.Alphabet;
@@ -37,6 +38,8 @@ public class NFA implements Acceptor {
     protected int initialState = -1;  // no initial state available at first
     protected final ISet finalStates; // final states
     protected Accept accept;
+    private volatile FrozenNFA frozen; // cached read-only snapshot
+    private int version;              // number of modifications so far
     
     public NFA(final Alphabet alphabet) {
         this.alphabet = alphabet;
@@ -85,9 +88,11 @@ public class NFA implements Acceptor {
         ISet currentStates = states;
         int index = 0;
         while(index < word.length()) {
+            final int letter = word.getLetter(index);
             ISet nextStates = UtilISet.newISet();
-            for(final int state : currentStates) {
-                nextStates.or(getSuccessors(state, word.getLetter(index)));
+            IntIterator iter = currentStates.intIterator();
+            while(iter.hasNext()) {
+                nextStates.or(getSuccessors(iter.nextInt(), letter));
             }
             currentStates = nextStates;
             ++ index;
@@ -110,10 +115,33 @@ public class NFA implements Acceptor {
         return getState(state).getSuccessors(letter);
     }
     
+    // -------------------------------------------
+    // read-only snapshot, rebuilt only after the automaton has been modified
+    public FrozenNFA freeze() {
+        FrozenNFA result = frozen;
+        if(result == null) {
+            result = new FrozenNFA(this);
+            frozen = result;
+        }
+        return result;
+    }
+    
+    // called whenever states, transitions or acceptance are modified
+    protected void modified() {
+        frozen = null;
+        version ++;
+    }
+    
+    // automata built from this one may be reused as long as the version is the same
+    public int getVersion() {
+        return version;
+    }
+    
     // -------------------------------------------
     
     public void setInitial(int state) {
         initialState = state;
+        modified();
     }
     
     public void setInitial(StateNFA state) {
@@ -123,12 +151,14 @@ public class NFA implements Acceptor {
     public void setFinal(int state) {
         assert checkValidState(state);
         finalStates.set(state);
+        modified();
     }
     
     // -------------------------------------------
     public StateNFA createState() {
         StateNFA state = makeState(states.size());
         states.add(state);
+        modified();
         return state;
     }
     
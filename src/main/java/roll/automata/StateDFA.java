@@ -0,0 +1,110 @@
+/* Copyright (c) 2018 -                                                   */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata;
+
+import java.util.List;
+
+import gnu.trove.procedure.TIntProcedure;
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * State of a DFA, its transitions are kept in the dense table of the DFA
+ * */
+
+public class StateDFA extends StateNFA {
+    
+    private final DFA dfa;
+
+    public StateDFA(final DFA fa, final int id) {
+        super(fa, id, null);
+        this.dfa = fa;
+    }
+    
+    @Override
+    public void addTransition(int letter, int state) {
+        assert dfa.checkValidLetter(letter);
+        dfa.setSuccessor(getId(), letter, state);
+    }
+    
+    @Override
+    public ISet getSuccessors(int letter) {
+        ISet succs = UtilISet.newISet();
+        int succ = getSuccessor(letter);
+        if(succ != -1) {
+            succs.set(succ);
+        }
+        return succs;
+    }
+    
+    @Override
+    public int getSuccessor(int letter) {
+        return dfa.getSuccessor(getId(), letter);
+    }
+    
+    @Override
+    public ISet getEnabledLetters() {
+        ISet letters = UtilISet.newISet();
+        for(int letter = 0; letter < dfa.getAlphabetSize(); letter ++) {
+            if(getSuccessor(letter) != -1) {
+                letters.set(letter);
+            }
+        }
+        return letters;
+    }
+    
+    @Override
+    public void forEachEnabledLetter(TIntProcedure procedure) {
+        for(int letter = 0; letter < dfa.getAlphabetSize(); letter ++) {
+            if(getSuccessor(letter) != -1 && !procedure.execute(letter)) {
+                break;
+            }
+        }
+    }
+    
+    @Override
+    public String toString(List<String> apList) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("  " + getId() + " [label=\"" + getId() + "\"");
+        if(dfa.isFinal(getId())) builder.append(", shape = doublecircle");
+        else builder.append(", shape = circle");
+        builder.append("];\n");
+        // transitions
+        for(int letter = 0; letter < dfa.getAlphabetSize(); letter ++) {
+            int succ = getSuccessor(letter);
+            if(succ == -1) continue;
+            builder.append("  " + getId() + " -> " + succ
+                    + " [label=\"" + apList.get(letter) + "\"];\n");
+        }
+        return builder.toString();
+    }
+    
+    @Override
+    public String toBA() {
+        StringBuilder builder = new StringBuilder();
+        // transitions
+        for(int letter = 0; letter < dfa.getAlphabetSize(); letter ++) {
+            int succ = getSuccessor(letter);
+            if(succ == -1) continue;
+            builder.append("\na" + letter + ",[" + getId() + "]->[" + succ + "]");
+        }
+        return builder.toString();
+    }
+
+}
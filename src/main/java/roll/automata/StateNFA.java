@@ -42,6 +42,14 @@ public class StateNFA {
         this.id = id;
         this.successors = new TIntObjectHashMap<>();
     }
+    
+    // for states whose transitions are stored by the automaton itself
+    protected StateNFA(final NFA fa, final int id, final TIntObjectMap<ISet> successors) {
+        assert fa != null;
+        this.nfa = fa;
+        this.id = id;
+        this.successors = successors;
+    }
 
     public NFA getFA() {
         return nfa;
@@ -63,6 +71,7 @@ public class StateNFA {
         }
         succs.set(state);
         successors.put(letter, succs);
+        nfa.modified();
     }
     
     public ISet getSuccessors(int letter) {
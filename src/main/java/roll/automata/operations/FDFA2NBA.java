@@ -0,0 +1,311 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import roll.automata.DFA;
+import roll.automata.FDFA;
+import roll.automata.NBA;
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+import roll.words.Alphabet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Builds the under or over Buechi automaton (or the limit deterministic one)
+ * of the FDFAs given in a sequence of equivalence queries. The automata added
+ * to a leading state only depend on the leading DFA and the progress DFA of
+ * that state, so they are kept between two calls and only rebuilt when one of
+ * the two DFAs is another object or has been modified in the meantime.
+ * */
+
+public class FDFA2NBA {
+
+    private final boolean under;
+    private final boolean dba;
+    // uses the non-final states of the progress DFAs, i.e., the under
+    // approximation of the complement
+    private final boolean negated;
+
+    // the leading DFA of the cached components
+    private DFA leadingFA;
+    private int leadingVersion;
+    private final List<Component> components;
+    private int numOfRebuilt;
+
+    public FDFA2NBA(boolean under, boolean dba) {
+        this(under, dba, false);
+    }
+
+    FDFA2NBA(boolean under, boolean dba, boolean negated) {
+        this.under = under;
+        this.dba = dba;
+        this.negated = negated;
+        this.components = new ArrayList<>();
+    }
+
+    // number of components rebuilt in the last call of buildNBA
+    public int getNumOfRebuilt() {
+        return numOfRebuilt;
+    }
+
+    public NBA buildNBA(FDFA fdfa) {
+        DFA autL = fdfa.getLeadingFA();
+        if(autL != leadingFA || autL.getVersion() != leadingVersion) {
+            // M^a_a has changed for every leading state
+            leadingFA = autL;
+            leadingVersion = autL.getVersion();
+            components.clear();
+        }
+        numOfRebuilt = 0;
+        for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
+            DFA autP = fdfa.getProgressFA(stateNr);
+            Component component = stateNr < components.size() ? components.get(stateNr) : null;
+            if(component != null && component.progressFA == autP
+            && component.progressVersion == autP.getVersion()) {
+                continue;
+            }
+            component = buildComponent(fdfa, stateNr);
+            numOfRebuilt ++;
+            if(stateNr < components.size()) {
+                components.set(stateNr, component);
+            }else {
+                components.add(component);
+            }
+        }
+        NBA nba = splice(autL);
+        return removeDeadStates(nba);
+    }
+
+    // the leading DFA together with the states of every component
+    private NBA splice(DFA autL) {
+        NBA nba = new NBA(autL.getAlphabet());
+        for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
+            nba.createState();
+        }
+        nba.setInitial(autL.getInitialState());
+        for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
+            if(autL.isFinal(stateNr)) {
+                nba.setFinal(stateNr);
+            }
+            for(int letter = 0; letter < autL.getAlphabetSize(); letter ++) {
+                nba.getState(stateNr).addTransition(letter, autL.getSuccessor(stateNr, letter));
+            }
+            Component component = components.get(stateNr);
+            final int offset = nba.getStateSize();
+            for(int local = 0; local < component.size; local ++) {
+                nba.createState();
+                if(component.finalStates.get(local)) {
+                    nba.setFinal(offset + local);
+                }
+            }
+            for(int index = 0; index < component.numTrans; index += 3) {
+                final int source = component.trans[index];
+                final int succ = offset + component.trans[index + 2];
+                // initial transitions of the component leave the leading state
+                nba.getState(source < 0 ? stateNr : offset + source)
+                   .addTransition(component.trans[index + 1], succ);
+            }
+        }
+        return nba;
+    }
+
+    // removes the unreachable states, for limit deterministic automata also the
+    // transitions to the states which can not reach a final state
+    private NBA removeDeadStates(NBA nba) {
+        ISet live = nba.getFinalStates();
+        boolean changed = dba;
+        if(! dba) {
+            for(int stateNr = 0; stateNr < nba.getStateSize(); stateNr ++) {
+                live.set(stateNr);
+            }
+        }
+        while(changed) {
+            changed = false;
+            for(int stateNr = 0; stateNr < nba.getStateSize(); stateNr ++) {
+                if(live.get(stateNr)) continue;
+                for(int letter = 0; letter < nba.getAlphabetSize() && ! live.get(stateNr); letter ++) {
+                    if(nba.getSuccessors(stateNr, letter).overlap(live)) {
+                        live.set(stateNr);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        NBA result = new NBA(nba.getAlphabet());
+        int[] map = new int[nba.getStateSize()];
+        Arrays.fill(map, -1);
+        LinkedList<Integer> queue = new LinkedList<>();
+        final int init = nba.getInitialState();
+        map[init] = result.createState().getId();
+        result.setInitial(map[init]);
+        queue.add(init);
+        while(! queue.isEmpty()) {
+            final int stateNr = queue.remove();
+            if(nba.isFinal(stateNr)) {
+                result.setFinal(map[stateNr]);
+            }
+            for(int letter = 0; letter < nba.getAlphabetSize(); letter ++) {
+                for(final int succNr : nba.getSuccessors(stateNr, letter)) {
+                    if(! live.get(succNr)) continue;
+                    if(map[succNr] < 0) {
+                        map[succNr] = result.createState().getId();
+                        queue.add(succNr);
+                    }
+                    result.getState(map[stateNr]).addTransition(letter, map[succNr]);
+                }
+            }
+        }
+        return result;
+    }
+
+    // the automata for the progress DFA A^a of leading state a, one for every
+    // final state f of A^a (non-final if negated) whose language is not empty
+    private Component buildComponent(FDFA fdfa, int stateNr) {
+        DFA autL = fdfa.getLeadingFA();
+        DFA autP = fdfa.getProgressFA(stateNr);
+        Component component = new Component(autP);
+        for(int accNr = 0; accNr < autP.getStateSize(); accNr ++) {
+            if(autP.isFinal(accNr) == negated) continue;
+            final int finalStateNr = accNr;
+            ProductDFA product;
+            if(under) {
+                // M^a_a * A^a_f * A^f_f
+                product = ProductDFA.build(new DFA[] {autL, autP, autP}
+                        , new int[] {stateNr, autP.getInitialState(), finalStateNr}
+                        , tuple -> tuple[0] == stateNr && tuple[1] == finalStateNr
+                                && tuple[2] == finalStateNr);
+            }else {
+                // M^a_a * A^a_f
+                product = ProductDFA.build(new DFA[] {autL, autP}
+                        , new int[] {stateNr, autP.getInitialState()}
+                        , tuple -> tuple[0] == stateNr && tuple[1] == finalStateNr);
+            }
+            if(product.isEmpty()) continue;
+            if(dba) {
+                Automaton dkAut = DFAOperations.toDBA(product.toDkAutomaton(fdfa.getAlphabet()));
+                component.addDkAutomaton(dkAut, fdfa.getAlphabet());
+            }else {
+                component.addEpsilon(product);
+            }
+        }
+        return component;
+    }
+
+    // the states of the automata built for one leading state, numbered from 0
+    private static class Component {
+        final DFA progressFA;
+        final int progressVersion;
+        final ISet finalStates;
+        int size;
+        // triples (source, letter, successor), source is -1 for the
+        // transitions from the leading state
+        int[] trans;
+        int numTrans;
+
+        Component(DFA progressFA) {
+            this.progressFA = progressFA;
+            this.progressVersion = progressFA.getVersion();
+            this.finalStates = UtilISet.newISet();
+            this.trans = new int[16];
+        }
+
+        // the only final state f is replaced by a new final state e which
+        // has the transitions of the initial state, and every transition to
+        // f also goes to e, see DFAOperations.addEpsilon
+        void addEpsilon(ProductDFA product) {
+            final int offset = size;
+            final int epsilon = offset + product.getStateSize();
+            ISet accs = product.getFinalStates();
+            if(accs.cardinality() != 1) {
+                throw new UnsupportedOperationException("FDFAOperations.buildNBA(): More than one accepting state...");
+            }
+            final int accept = accs.iterator().next();
+            size = epsilon + 1;
+            finalStates.set(epsilon);
+            for(int state = 0; state < product.getStateSize(); state ++) {
+                for(int letter = 0; letter < product.getAlphabetSize(); letter ++) {
+                    final int succ = product.getSuccessor(state, letter);
+                    if(succ < 0) continue;
+                    addTransition(offset + state, letter, offset + succ);
+                    if(succ == accept) {
+                        addTransition(offset + state, letter, epsilon);
+                    }
+                }
+            }
+            final int init = product.getInitialState();
+            for(int letter = 0; letter < product.getAlphabetSize(); letter ++) {
+                final int succ = product.getSuccessor(init, letter);
+                if(succ < 0) continue;
+                addTransition(epsilon, letter, offset + succ);
+                // the leading state has the transitions of the initial state
+                addTransition(-1, letter, offset + succ);
+                if(succ == accept) {
+                    addTransition(-1, letter, epsilon);
+                }
+            }
+        }
+
+        // the states reachable from the initial transitions of dkAut
+        void addDkAutomaton(Automaton dkAut, Alphabet alphabet) {
+            TObjectIntMap<State> map = new TObjectIntHashMap<>();
+            LinkedList<State> queue = new LinkedList<>();
+            addTransitions(-1, dkAut.getInitialState(), map, queue, alphabet);
+            while(! queue.isEmpty()) {
+                State state = queue.remove();
+                addTransitions(map.get(state), state, map, queue, alphabet);
+            }
+        }
+
+        private void addTransitions(int source, State state, TObjectIntMap<State> map
+                , LinkedList<State> queue, Alphabet alphabet) {
+            for(Transition t : state.getTransitions()) {
+                State dest = t.getDest();
+                if(! map.containsKey(dest)) {
+                    if(dest.isAccept()) {
+                        finalStates.set(size);
+                    }
+                    map.put(dest, size ++);
+                    queue.add(dest);
+                }
+                for(char label = t.getMin(); label <= t.getMax(); label ++) {
+                    addTransition(source, alphabet.indexOf(label), map.get(dest));
+                }
+            }
+        }
+
+        private void addTransition(int source, int letter, int succ) {
+            if(numTrans + 3 > trans.length) {
+                trans = Arrays.copyOf(trans, trans.length * 2);
+            }
+            trans[numTrans ++] = source;
+            trans[numTrans ++] = letter;
+            trans[numTrans ++] = succ;
+        }
+    }
+
+}
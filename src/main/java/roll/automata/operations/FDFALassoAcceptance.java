@@ -0,0 +1,227 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import roll.automata.DFA;
+import roll.automata.FDFA;
+import roll.util.Pair;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Finds a normalized decomposition (x, y) of the ultimately periodic word
+ * w = prefix.period^w which is accepted by an FDFA, i.e., M(x) = M(x.y) = s
+ * and y is accepted (or rejected, for D2) by the progress DFA of s, directly
+ * on the DFAs. As for the dollar automata, x ranges over the prefixes of w
+ * which are at least as long as the stem of the normal form u.v^w of w, and
+ * y over the powers of the corresponding rotation of v.
+ *
+ * Every x is determined by its position t after the stem, and after t has
+ * passed the pair of M(x) and t mod |v| repeats, so there is only a finite
+ * number of them. For every x the pairs of leading and progress states of
+ * x.y, x.y^2, ... also repeat, so we stop when one of them is seen again.
+ * Every thread keeps its own buffers to record the visited pairs.
+ * */
+
+public final class FDFALassoAcceptance {
+
+    private static final ThreadLocal<FDFALassoAcceptance> INSTANCE
+        = ThreadLocal.withInitial(FDFALassoAcceptance::new);
+
+    // visited pairs are marked with the current stamp
+    private int[] positionMarks = new int[16];
+    private int[] loopMarks = new int[16];
+    private int positionStamp;
+    private int loopStamp;
+
+    // fields of the current check
+    private Word prefix;
+    private Word period;
+    private int stemLength;
+    private int loopLength;
+    private boolean accepted;  // whether y should be accepted by the progress DFA
+    // the shortest decomposition found so far
+    private int bestPosition;
+    private int bestPower;
+
+    private FDFALassoAcceptance() {
+    }
+
+    public static boolean accepts(FDFA fdfa, Word prefix, Word period) {
+        assert fdfa != null && prefix != null && period != null;
+        if(period.isEmpty()) {
+            return false;
+        }
+        FDFALassoAcceptance checker = INSTANCE.get();
+        try {
+            return checker.search(fdfa, prefix, period, true, true);
+        }finally {
+            checker.prefix = null;
+            checker.period = null;
+        }
+    }
+
+    // the shortest normalized decomposition accepted by fdfa, or null
+    public static Pair<Word, Word> normalize(FDFA fdfa, Word prefix, Word period) {
+        return normalize(fdfa, prefix, period, true);
+    }
+
+    // the shortest normalized decomposition whose period is accepted by the
+    // progress DFA if accepted holds and rejected otherwise, or null
+    public static Pair<Word, Word> normalize(FDFA fdfa, Word prefix, Word period, boolean accepted) {
+        assert fdfa != null && prefix != null && period != null;
+        if(period.isEmpty()) {
+            return null;
+        }
+        FDFALassoAcceptance checker = INSTANCE.get();
+        try {
+            if(! checker.search(fdfa, prefix, period, accepted, false)) {
+                return null;
+            }
+            return checker.getDecomposition();
+        }finally {
+            checker.prefix = null;
+            checker.period = null;
+        }
+    }
+
+    // ------------- the word prefix.period^w -------------------------
+    private int getLetter(int position) {
+        if(position < prefix.length()) {
+            return prefix.getLetter(position);
+        }
+        return period.getLetter((position - prefix.length()) % period.length());
+    }
+
+    // the lengths of the stem and the loop of the normal form
+    private void computeNormalForm() {
+        final int length = period.length();
+        loopLength = length;
+        for(int root = 1; root < length; root ++) {
+            if(length % root != 0) continue;
+            boolean isRoot = true;
+            for(int letterNr = root; letterNr < length && isRoot; letterNr ++) {
+                isRoot = period.getLetter(letterNr) == period.getLetter(letterNr - root);
+            }
+            if(isRoot) {
+                loopLength = root;
+                break;
+            }
+        }
+        stemLength = prefix.length();
+        while(stemLength > 0 && getLetter(stemLength - 1) == getLetter(stemLength - 1 + loopLength)) {
+            stemLength --;
+        }
+    }
+
+    private Pair<Word, Word> getDecomposition() {
+        int[] x = new int[stemLength + bestPosition];
+        for(int letterNr = 0; letterNr < x.length; letterNr ++) {
+            x[letterNr] = getLetter(letterNr);
+        }
+        int[] y = new int[bestPower * loopLength];
+        for(int letterNr = 0; letterNr < y.length; letterNr ++) {
+            y[letterNr] = getLetter(x.length + letterNr);
+        }
+        return new Pair<>(prefix.getAlphabet().getArrayWord(x), prefix.getAlphabet().getArrayWord(y));
+    }
+
+    // ------------- search -------------------------
+    private boolean search(FDFA fdfa, Word prefix, Word period, boolean accepted, boolean any) {
+        this.prefix = prefix;
+        this.period = period;
+        this.accepted = accepted;
+        computeNormalForm();
+        final DFA autL = fdfa.getLeadingFA();
+        int state = autL.getInitialState();
+        for(int letterNr = 0; letterNr < stemLength && state >= 0; letterNr ++) {
+            state = autL.getSuccessor(state, getLetter(letterNr));
+        }
+        positionMarks = newStamp(positionMarks, autL.getStateSize() * loopLength, true);
+        bestPosition = -1;
+        for(int position = 0; state >= 0; position ++) {
+            // the length of x.y is at least position plus one loop
+            if(bestPosition >= 0 && position + loopLength >= bestPosition + bestPower * loopLength) {
+                break;
+            }
+            final int offset = position % loopLength;
+            final int node = state * loopLength + offset;
+            if(positionMarks[node] == positionStamp) {
+                break;
+            }
+            positionMarks[node] = positionStamp;
+            final int power = findPower(fdfa, state, stemLength + offset);
+            if(power > 0 && (bestPosition < 0
+               || position + power * loopLength < bestPosition + bestPower * loopLength)) {
+                bestPosition = position;
+                bestPower = power;
+                if(any) {
+                    return true;
+                }
+            }
+            state = autL.getSuccessor(state, getLetter(stemLength + position));
+        }
+        return bestPosition >= 0;
+    }
+
+    // the least k such that M(s, y^k) = s and y^k is accepted (rejected) by the
+    // progress DFA of s where y is the loop starting at position start, or 0
+    private int findPower(FDFA fdfa, int leadingState, int start) {
+        final DFA autL = fdfa.getLeadingFA();
+        final DFA autP = fdfa.getProgressFA(leadingState);
+        // progress state -1 means that the progress DFA has no run
+        final int numProgress = autP.getStateSize() + 1;
+        loopMarks = newStamp(loopMarks, autL.getStateSize() * numProgress, false);
+        int state = leadingState;
+        int progress = autP.getInitialState();
+        for(int power = 1; ; power ++) {
+            for(int letterNr = 0; letterNr < loopLength && state >= 0; letterNr ++) {
+                final int letter = getLetter(start + letterNr);
+                state = autL.getSuccessor(state, letter);
+                progress = progress < 0 ? -1 : autP.getSuccessor(progress, letter);
+            }
+            if(state < 0) {
+                return 0;
+            }
+            if(state == leadingState && (progress >= 0 && autP.isFinal(progress)) == accepted) {
+                return power;
+            }
+            final int node = state * numProgress + progress + 1;
+            if(loopMarks[node] == loopStamp) {
+                return 0;
+            }
+            loopMarks[node] = loopStamp;
+        }
+    }
+
+    // enlarges the marks if needed and starts a new stamp
+    private int[] newStamp(int[] marks, int size, boolean position) {
+        int stamp = (position ? positionStamp : loopStamp) + 1;
+        if(marks.length < size || stamp == Integer.MAX_VALUE) {
+            marks = new int[Math.max(size, marks.length * 2)];
+            stamp = 1;
+        }
+        if(position) {
+            positionStamp = stamp;
+        }else {
+            loopStamp = stamp;
+        }
+        return marks;
+    }
+
+}
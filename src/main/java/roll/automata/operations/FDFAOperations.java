@@ -26,6 +26,7 @@ import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import roll.automata.DFA;
 import roll.automata.FDFA;
+import roll.automata.NBA;
 import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.words.Alphabet;
@@ -121,142 +122,48 @@ public class FDFAOperations {
     }
     
     private static Automaton buildDFAFromFDFA(FDFA fdfa, boolean complement) {
+        DFA autL = fdfa.getLeadingFA();
         TIntObjectMap<State> map = new TIntObjectHashMap<>(); 
-        Automaton dkAutL = DFAOperations.toDkDFA(map, fdfa.getLeadingFA());
-        for(int stateNr = 0; stateNr < fdfa.getLeadingFA().getStateSize(); stateNr ++) {
-            // M^a_a
-            Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-            // A^a
-            Automaton dkAutP = DFAOperations.toDkDFA(fdfa.getProgressFA(stateNr));
-            if(complement) {
-                // whether we need the complement of A^a
-                dkAutP = dkAutP.complement();
-            }
-            Automaton product = dkAutLOther.intersection(dkAutP);
-            product.minimize();
-            if(! product.getAcceptStates().isEmpty()) {
+        Automaton dkAutL = DFAOperations.toDkDFA(map, autL);
+        for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
+            final int leadingState = stateNr;
+            DFA autP = fdfa.getProgressFA(stateNr);
+            // M^a_a * A^a, or M^a_a * (A^a)^c if we need the complement of A^a,
+            // whose sink state is final since A^a may be partial
+            ProductDFA product = ProductDFA.build(new DFA[] {autL, autP}
+                    , new int[] {stateNr, autP.getInitialState()}
+                    , new boolean[] {false, complement}
+                    , tuple -> tuple[0] == leadingState
+                            && (tuple[1] < autP.getStateSize() && autP.isFinal(tuple[1])) != complement);
+            if(! product.isEmpty()) {
                 State u = map.get(stateNr); // make dollar transitions
-                u.addTransition(new Transition(Alphabet.DOLLAR, product.getInitialState()));
+                State init = product.toDkAutomaton(fdfa.getAlphabet()).getInitialState();
+                u.addTransition(new Transition(Alphabet.DOLLAR, init));
             }
         }
         dkAutL.setDeterministic(true);
         return dkAutL;
     }
     
-    // build NBA from FDFA
-    public static Automaton buildDollarNFA(FDFA fdfa) {
-        // L means Leading and P means Progress
-        TIntObjectMap<State> map = new TIntObjectHashMap<>(); 
-        Automaton dkAutL = DFAOperations.toDkDFA(map, fdfa.getLeadingFA());
-        for(int stateNr = 0; stateNr < fdfa.getLeadingFA().getStateSize(); stateNr ++) {
-            DFA autP = fdfa.getProgressFA(stateNr);
-            ISet finalStates = autP.getFinalStates();
-            List<Automaton> autAccs = new ArrayList<>();
-            int stateInitP = autP.getInitialState();
-            for(final int finalStateNr : finalStates) {
-                // A^a_f
-                Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, finalStateNr);
-                dkAutP.minimize();
-                // M^a_a
-                Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
-                // A^a_a * M^a_a
-                Automaton product = dkAutP.intersection(dkAutLOther);
-                product.minimize();
-                
-                if(! product.getAcceptStates().isEmpty()) {
-                    assert product.getAcceptStates().size() == 1;
-                    autAccs.add(product);
-                }
-            }
-            State u = map.get(stateNr);
-            
-            for(dk.brics.automaton.Automaton aut : autAccs) {
-                u.addTransition(new Transition(Alphabet.DOLLAR, aut.getInitialState()));
-            }
-        }
-        dkAutL.setDeterministic(false);
-        //dkAutL.minimize(); only for DFA
-        return dkAutL;
+    public static NBA buildUnderNBA(FDFA fdfa) {
+        return new FDFA2NBA(true, false).buildNBA(fdfa);
     }
     
-    public static Automaton buildUnderNBA(FDFA fdfa) {
-        return buildNBA(fdfa, true, false);
+    public static NBA buildOverNBA(FDFA fdfa) {
+        return new FDFA2NBA(false, false).buildNBA(fdfa);
     }
     
-    public static Automaton buildOverNBA(FDFA fdfa) {
-        return buildNBA(fdfa, false, false);
+    public static NBA buildUnderLDBA(FDFA fdfa) {
+        return new FDFA2NBA(true, true).buildNBA(fdfa);
     }
     
-    private static Automaton buildNBA(FDFA fdfa, boolean under, boolean dba) {
-        // L means Leading and P means Progress
-        TIntObjectMap<State> map = new TIntObjectHashMap<>();
-        Automaton dkAutL = DFAOperations.toDkDFA(map, fdfa.getLeadingFA());
-        for (int stateNr = 0; stateNr < fdfa.getLeadingFA().getStateSize(); stateNr++) {
-            DFA autP = fdfa.getProgressFA(stateNr);
-            ISet finalStates = autP.getFinalStates();
-            List<Automaton> finalAuts = new ArrayList<>();
-            int initP = autP.getInitialState();
-            for (final int finalStateNr : finalStates) {
-                // A^a_f
-                Automaton dkAutP = DFAOperations.toDkDFA(autP, initP, finalStateNr);
-                dkAutP.minimize();
-                // M^a_a
-                Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
-                // M^a_a * A^a_f                
-                dk.brics.automaton.Automaton product = dkAutP.intersection(dkAutLOther);
-                product.minimize();
-                
-                if (under) {
-                    //A^f_f
-                    Automaton dkAutNq = DFAOperations.toDkDFA(autP, finalStateNr, finalStateNr);
-                    dkAutNq.minimize();
-                    // M^a_a * A^a_f * A^f_f
-                    product = product.intersection(dkAutNq);
-                    product.minimize();
-                }
-
-                if (! product.getAcceptStates().isEmpty()) {
-                    if(product.getAcceptStates().size() > 1) {
-                        throw new UnsupportedOperationException("FDFAOperations.buildNBA(): More than one accepting state...");
-                    }
-                    assert product.getAcceptStates().size() == 1 : "More than one accepting state...";
-                    if(dba) {
-                        product = DFAOperations.toDBA(product);
-                    }else {
-                        product =  DFAOperations.addEpsilon(product);
-                    }
-                    finalAuts.add(product);
-                }
-            }
-
-            State u = map.get(stateNr); // make epsilon transitions
-            for (Automaton dkAut : finalAuts) {
-                State init = dkAut.getInitialState();
-                for (Transition t : init.getTransitions())
-                    u.addTransition(new Transition(t.getMin(), t.getMax(), t.getDest()));
-            }
-        }
-
-        return dkAutL;
-    }
-    
-    public static Automaton buildUnderLDBA(FDFA fdfa) {
-        Automaton result = buildNBA(fdfa, true, true);
-        result.removeDeadTransitions();
-        return result;
-    }
-    
-    public static Automaton buildOverLDBA(FDFA fdfa) {
-        Automaton result = buildNBA(fdfa, false, true);
-        result.removeDeadTransitions();
-        return result;
+    public static NBA buildOverLDBA(FDFA fdfa) {
+        return new FDFA2NBA(false, true).buildNBA(fdfa);
     }
     
     
     public static Pair<Word, Word> isEmpty(FDFA fdfa) {
-        Automaton d1 = buildDOne(fdfa);
+        Automaton d1 = fdfa.getDOne();
         String ce = d1.getShortestExample(true);
         if(ce == null) {
             return null;
@@ -264,59 +171,14 @@ public class FDFAOperations {
         return fdfa.getAlphabet().getWordPairFromString(ce);
     }
     
+    // the shortest normalized decomposition of prefix.suffix^w accepted by fdfa
     public static Pair<Word, Word> normalize(FDFA fdfa, Word prefix, Word suffix) {
-        Automaton dDollar = buildDDollar(prefix, suffix);
-        Automaton dOne =  buildDOne(fdfa);
-        dOne = dOne.intersection(dDollar);
-        String wordStr = dOne.getShortestExample(true);
-        if(wordStr == null) return null;
-        return fdfa.getAlphabet().getWordPairFromString(wordStr);
+        return FDFALassoAcceptance.normalize(fdfa, prefix, suffix);
     }
     
-    public static Automaton buildNegNBA(FDFA fdfa) {
-        DFA autL = fdfa.getLeadingFA();
-        TIntObjectMap<State> map = new TIntObjectHashMap<>();
-        Automaton dkAutL = DFAOperations.toDkDFA(map, autL);
-        for (int stateNr = 0; stateNr < autL.getStateSize(); stateNr++) {
-            DFA autP = fdfa.getProgressFA(stateNr);
-            List<Automaton> accAuts = new ArrayList<>();
-            int stateInitP = autP.getInitialState();
-            for (int accNr = 0; accNr < autP.getStateSize(); accNr ++) {
-                // reverse all the states here
-                if(autP.isFinal(accNr)) continue;
-                Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, accNr);
-                dkAutP.minimize();
-                Automaton dkAutLOther = DFAOperations.toDkDFA(autL, stateNr, stateNr);
-                dkAutLOther.minimize();
-                
-                Automaton product = dkAutP.intersection(dkAutLOther);                
-                product.minimize();
-                
-                Automaton dkAutNq = DFAOperations.toDkDFA(autP, accNr, accNr);
-                dkAutNq.minimize();
-
-                product = product.intersection(dkAutNq);
-                product.minimize();
-
-                if (! product.getAcceptStates().isEmpty()) {
-                    assert product.getAcceptStates().size() == 1;
-                    if(product.getAcceptStates().size() > 1) {
-                        throw new UnsupportedOperationException("More than one accepting state...");
-                    }
-                    product = DFAOperations.addEpsilon(product);
-                    accAuts.add(product);
-                }
-            }
-
-            State u = map.get(stateNr); // make epsilon or Dollar transitions
-            for (Automaton dkAut : accAuts) {
-                State init = dkAut.getInitialState();
-                for (Transition t : init.getTransitions())
-                    u.addTransition(new Transition(t.getMin(), t.getMax(), t.getDest()));
-            }
-        }
-//      dkAutL.removeDeadTransitions();
-        return dkAutL;
+    // the under Buechi automaton of the complement of the FDFA
+    public static NBA buildNegNBA(FDFA fdfa) {
+        return new FDFA2NBA(true, false, true).buildNBA(fdfa);
     }
     
     
@@ -23,11 +23,11 @@ import java.util.Queue;
 
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
-import roll.words.Alphabet;
 import roll.words.Word;
 
 /**
@@ -36,7 +36,7 @@ import roll.words.Word;
 
 public class LassoConstructor {
     
-    private final NBA result;
+    private final FrozenNFA result;
     private int fstF;
     private int sndF;
     private ISet scc;
@@ -50,6 +50,10 @@ public class LassoConstructor {
     private List<Integer> runSuffix;
     
     public LassoConstructor(NBA result, int fstF, int sndF, ISet scc) {
+        this(result.freeze(), fstF, sndF, scc);
+    }
+    
+    public LassoConstructor(FrozenNFA result, int fstF, int sndF, ISet scc) {
         this.result = result;
         this.fstF = fstF;
         this.sndF = sndF;
@@ -85,9 +89,10 @@ public class LassoConstructor {
             int state = -1;
             int letter = -1;
             for(int c = 0; c < result.getAlphabetSize(); c ++) {
-                ISet succs = result.getSuccessors(fstF, c);
                 boolean found = false;
-                for(final int succ : succs) {
+                final int end = result.getSuccessorEnd(fstF, c);
+                for(int index = result.getSuccessorBegin(fstF, c); index < end; index ++) {
+                    final int succ = result.getSuccessorAt(index);
                     if(fstF == succ) {
                         wordSuffix = wordSuffix.append(c);
                         found = true;
@@ -120,7 +125,6 @@ public class LassoConstructor {
         // store the predecessors (value) of the specific states (key)
         TIntIntMap predStates = new TIntIntHashMap();
         TIntIntMap predLabels = new TIntIntHashMap();
-        Alphabet alphabet = result.getAlphabet();
         ISet visited = UtilISet.newISet();
         Queue<Integer> queue = new LinkedList<>();
         queue.add(s);
@@ -128,10 +132,10 @@ public class LassoConstructor {
         while(! queue.isEmpty()) {
             if(visited.get(t)) break; // already found it
             int cur = queue.poll();
-            for(int c = 0; c < alphabet.getLetterSize(); c ++) {
-                ISet succs = result.getSuccessors(cur, c);
-                if(succs.isEmpty()) continue;
-                for (final int succ : succs) {
+            for(int c = 0; c < result.getAlphabetSize(); c ++) {
+                final int end = result.getSuccessorEnd(cur, c);
+                for (int index = result.getSuccessorBegin(cur, c); index < end; index ++) {
+                    final int succ = result.getSuccessorAt(index);
                     if (!visited.get(succ)) {// in states allowed and not visited
                         queue.add(succ); // add in queue
                         predStates.put(succ, cur); // record predecessors
@@ -16,11 +16,11 @@
 
 package roll.automata.operations;
 
-import java.util.Stack;
+import java.util.Arrays;
 
-import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.hash.TIntIntHashMap;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
+import roll.util.IntIterator;
 import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
@@ -32,10 +32,14 @@ import roll.words.Word;
 public class NBAEmptinessCheck {
     
     private int index = 0;
-    private Stack<Integer> SCCs;
-    private NBA nba;
-    private TIntIntMap vIndex;
-    private TIntIntMap vLowlink;
+    private FrozenNFA nba;
+    private final int[] vIndex;   // -1 if not visited yet
+    private final int[] vLowlink;
+    private final int[] SCCs;     // tarjan's stack
+    private int numSCCs = 0;
+    private final ISet onSCCs;    // states in SCCs
+    private final int[] callStates;  // explicit call stack of tarjan
+    private final int[] callIndices; // next transition to visit in each call
     private int fstF = -1;
     private int sndF = -1;
     private ISet scc;
@@ -46,27 +50,40 @@ public class NBAEmptinessCheck {
     
     // input BA is generalized BA
     public NBAEmptinessCheck(NBA nba, ISet fstAcc, ISet sndAcc){
+        this(nba.freeze(), fstAcc, sndAcc);
+    }
+    
+    public NBAEmptinessCheck(FrozenNFA nba, ISet fstAcc, ISet sndAcc){
         this.nba  = nba;
         this.fstAcc = fstAcc;
         this.sndAcc = sndAcc;
-        this.SCCs = new Stack<>();
         this.scc = UtilISet.newISet();
-        this.vIndex = new TIntIntHashMap();
-        this.vLowlink = new TIntIntHashMap();
+        final int numStates = nba.getStateSize();
+        this.vIndex = new int[numStates];
+        Arrays.fill(vIndex, -1);
+        this.vLowlink = new int[numStates];
+        this.SCCs = new int[numStates];
+        this.onSCCs = UtilISet.newISet();
+        this.callStates = new int[numStates];
+        this.callIndices = new int[numStates];
     }
     
     public boolean isEmpty() {
         // only check the part where final states can reach
         // all final states are reachable from the initial state
-        for(final int s : fstAcc) {
-            if(!vIndex.containsKey(s)){
+        IntIterator fstIter = fstAcc.intIterator();
+        while(fstIter.hasNext()) {
+            final int s = fstIter.nextInt();
+            if(vIndex[s] < 0){
                 if(tarjan(s))
                     return false;
             }
         }
         
-        for(final int s : sndAcc) {
-            if(!vIndex.containsKey(s)){
+        IntIterator sndIter = sndAcc.intIterator();
+        while(sndIter.hasNext()) {
+            final int s = sndIter.nextInt();
+            if(vIndex[s] < 0){
                 if(tarjan(s))
                     return false;
             }
@@ -74,58 +91,86 @@ public class NBAEmptinessCheck {
 
         return true;
     }
-
-    // terminate on the first accepting loop
-    boolean tarjan(int v) {
-        vIndex.put(v, index);
-        vLowlink.put(v, index);
+    
+    private void visit(int v) {
+        vIndex[v] = index;
+        vLowlink[v] = index;
         index++;
-        SCCs.push(v);
+        SCCs[numSCCs ++] = v;
+        onSCCs.set(v);
+    }
 
-        boolean selfLoop = false;
-        for(int c = 0; c < nba.getAlphabetSize(); c ++) {
-            ISet vprimes = nba.getSuccessors(v, c);
-            for(final int vp : vprimes) {
-                if(vp == v) selfLoop = true;
-                if(!vIndex.containsKey(vp)){
-                    if(tarjan(vp)) return true;
-                    vLowlink.put(v, Math.min(vLowlink.get(v), vLowlink.get(vp)));
-                }else if(SCCs.contains(vp)){
-                    vLowlink.put(v, Math.min(vLowlink.get(v), vIndex.get(vp)));
+    // terminate on the first accepting loop, the recursion is simulated
+    // with callStates and callIndices to not overflow the Java stack
+    boolean tarjan(int v) {
+        int top = 0;
+        visit(v);
+        callStates[top] = v;
+        callIndices[top] = nba.getOutBegin(v);
+        while(top >= 0) {
+            final int u = callStates[top];
+            if(callIndices[top] < nba.getOutEnd(u)) {
+                final int vp = nba.getSuccessorAt(callIndices[top]);
+                callIndices[top] ++;
+                if(vIndex[vp] < 0){
+                    visit(vp);
+                    top ++;
+                    callStates[top] = vp;
+                    callIndices[top] = nba.getOutBegin(vp);
+                }else if(onSCCs.get(vp)){
+                    vLowlink[u] = Math.min(vLowlink[u], vIndex[vp]);
                 }
+                continue;
+            }
+            // all successors of u have been visited
+            if(vLowlink[u] == vIndex[u] && popSCC(u)) {
+                return true;
+            }
+            top --;
+            if(top >= 0) {
+                final int parent = callStates[top];
+                vLowlink[parent] = Math.min(vLowlink[parent], vLowlink[u]);
             }
         }
-        
-        boolean isAcc = false;
-        if(vLowlink.get(v) == vIndex.get(v)){
-            int numStates = 0;
-            scc.clear();
-            boolean left = false, right = false;
-            while(! SCCs.empty()){
-                int t = SCCs.pop();
-                ++ numStates;
-                if(fstAcc.get(t)) {
-                    fstF = t;
-                    left = true;
-                }
-                if(sndAcc.get(t)) {
-                    sndF = t;
-                    right = true;
-                }
-
-                scc.set(t);
-                if(t == v)
-                    break;
+        return false;
+    }
+    
+    // pop the SCC with root v and check whether it is accepting
+    private boolean popSCC(int v) {
+        int numStates = 0;
+        scc.clear();
+        boolean left = false, right = false;
+        while(numSCCs > 0){
+            int t = SCCs[-- numSCCs];
+            onSCCs.clear(t);
+            ++ numStates;
+            if(fstAcc.get(t)) {
+                fstF = t;
+                left = true;
             }
-            
-            if(numStates == 1 && !selfLoop){
-                return false;
+            if(sndAcc.get(t)) {
+                sndF = t;
+                right = true;
             }
-            
-            isAcc = left && right;
+
+            scc.set(t);
+            if(t == v)
+                break;
         }
         
-        return isAcc;
+        if(numStates == 1 && !hasSelfLoop(v)){
+            return false;
+        }
+        
+        return left && right;
+    }
+    
+    private boolean hasSelfLoop(int v) {
+        final int end = nba.getOutEnd(v);
+        for(int index = nba.getOutBegin(v); index < end; index ++) {
+            if(nba.getSuccessorAt(index) == v) return true;
+        }
+        return false;
     }
     
     public void findpath() {
@@ -16,17 +16,15 @@
 
 package roll.automata.operations;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Stack;
+import java.util.Arrays;
 
-import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 import roll.util.Pair;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
-import roll.words.Alphabet;
 import roll.words.Word;
 
 /**
@@ -35,8 +33,8 @@ import roll.words.Word;
 
 public class NBAIntersectionCheck {
     
-    private NBA fstOp;
-    private NBA sndOp;
+    private FrozenNFA fstOp;
+    private FrozenNFA sndOp;
     private boolean empty = true;
     private NBA result;
     private ISet fstAcc;
@@ -50,6 +48,14 @@ public class NBAIntersectionCheck {
     }
     
     public NBAIntersectionCheck(NBA fstOp, NBA sndOp, boolean needCE) {
+        this(fstOp.freeze(), sndOp.freeze(), needCE);
+    }
+    
+    public NBAIntersectionCheck(FrozenNFA fstOp, FrozenNFA sndOp) {
+        this(fstOp, sndOp, false);
+    }
+    
+    public NBAIntersectionCheck(FrozenNFA fstOp, FrozenNFA sndOp, boolean needCE) {
         assert fstOp != null && sndOp != null;
         this.needCE = needCE;
         this.fstOp = fstOp;
@@ -88,149 +94,194 @@ public class NBAIntersectionCheck {
         return empty;
     }
     
-    private class Elem {
-        ProductState state;
-        byte label;
-        Elem(ProductState s, byte l) {
-            state = s;
-            label = l;
+    private byte getLabel(int fstState, int sndState) {
+        byte label = 0;
+        if(fstOp.isFinal(fstState)) {
+            label |= 1;
         }
-    }
-    
-    private class ProductState {
-        int fstState;
-        int sndState;
-        int resState;
-        ProductState(int fstState, int sndState) {
-            this.fstState = fstState;
-            this.sndState = sndState;
-        }
-        
-        @Override
-        public int hashCode() {
-            return fstState * sndOp.getStateSize() + sndState;
-        }
-        
-        @Override
-        public boolean equals(Object obj) {
-            if(obj == null) return false;
-            if(obj == this) return true;
-            if(obj instanceof ProductState) {
-                ProductState other = (ProductState)obj;
-                return fstState == other.fstState
-                    && sndState == other.sndState;
-            }
-            return false;
-        }
-        
-        @Override
-        public String toString() {
-            return resState + ":(" + fstState + "," + sndState + ")";
+        if(sndOp.isFinal(sndState)) {
+            label |= 2;
         }
+        return label;
     }
     
-    
-    
+    // product states are numbered as the states in result and all stacks
+    // are int arrays indexed by those numbers
     public class AsccExplore {
         
         private int depth;
-        private final Stack<Elem> sccs;           // C99 's root stack
-        private final Stack<Integer> act;            // tarjan's stack
-        private final TIntIntMap dfsNum;        
-        private final Map<ProductState, ProductState> map; 
+        private final TLongIntMap map;   // (fst, snd) -> product state
+        private int[] fstStates = new int[16];
+        private int[] sndStates = new int[16];
+        private int[] dfsNum = new int[16];  // 0 if not visited yet
+        
+        private int[] sccs = new int[16];      // C99 's root stack
+        private byte[] sccLabels = new byte[16];
+        private int numSccs = 0;
+        private int[] act = new int[16];      // tarjan's stack
+        private int numAct = 0;
+        private final ISet inAct;
+        
+        // explicit call stack, the next pair of successors to visit is
+        // (fstIndex, sndIndex) over letter, sndIndex is -1 for a new letter
+        private int[] callStates = new int[16];
+        private int[] callLetters = new int[16];
+        private int[] callSndIndices = new int[16];
+        private int[] callFstIndices = new int[16];
         
         public AsccExplore() {
-            this.sccs = new Stack<>();
-            this.act = new Stack<>();
-            this.dfsNum = new TIntIntHashMap();
             this.depth = 0;
-            this.map = new HashMap<>();
+            this.map = new TLongIntHashMap(16, 0.5f, -1L, -1);
+            this.inAct = UtilISet.newISet();
             strongConnect(initialize());
         }
         
-        ProductState getOrAddState(int fst, int snd) {
-            ProductState prod = new ProductState(fst, snd);
-            if(map.containsKey(prod)) {
-                return map.get(prod);
+        int getOrAddState(int fst, int snd) {
+            final long key = (long)fst * sndOp.getStateSize() + snd;
+            int prod = map.get(key);
+            if(prod >= 0) {
+                return prod;
             }
-            prod.resState = numStates;
-            map.put(prod, prod);
+            prod = numStates;
+            map.put(key, prod);
             ++ numStates;
+            if(prod >= fstStates.length) {
+                final int capacity = 2 * fstStates.length;
+                fstStates = Arrays.copyOf(fstStates, capacity);
+                sndStates = Arrays.copyOf(sndStates, capacity);
+                dfsNum = Arrays.copyOf(dfsNum, capacity);
+            }
+            fstStates[prod] = fst;
+            sndStates[prod] = snd;
             if(needCE) {
                 result.createState();
                 assert numStates == result.getStateSize();
                 if(fstOp.isFinal(fst)) {
-                    fstAcc.set(prod.resState);
+                    fstAcc.set(prod);
                 }
                 if(sndOp.isFinal(snd)) {
-                    sndAcc.set(prod.resState);
+                    sndAcc.set(prod);
                 }
             }
             
             return prod;
         }
         
-        private ProductState initialize() {
-            ProductState prod = getOrAddState(fstOp.getInitialState(), sndOp.getInitialState());
-            if(needCE) result.setInitial(prod.resState);
+        private int initialize() {
+            int prod = getOrAddState(fstOp.getInitialState(), sndOp.getInitialState());
+            if(needCE) result.setInitial(prod);
             return prod;
         }
-
-        byte getLabel(ProductState prod) {
-            byte label = 0;
-            if(fstOp.isFinal(prod.fstState)) {
-                label |= 1;
+        
+        private void pushScc(int prod, byte label) {
+            if(numSccs == sccs.length) {
+                sccs = Arrays.copyOf(sccs, 2 * numSccs);
+                sccLabels = Arrays.copyOf(sccLabels, 2 * numSccs);
             }
-            if(sndOp.isFinal(prod.sndState)) {
-                label |= 2;
+            sccs[numSccs] = prod;
+            sccLabels[numSccs] = label;
+            ++ numSccs;
+        }
+        
+        private void pushCall(int top, int prod) {
+            if(top == callStates.length) {
+                callStates = Arrays.copyOf(callStates, 2 * top);
+                callLetters = Arrays.copyOf(callLetters, 2 * top);
+                callSndIndices = Arrays.copyOf(callSndIndices, 2 * top);
+                callFstIndices = Arrays.copyOf(callFstIndices, 2 * top);
+            }
+            ++ depth;
+            dfsNum[prod] = depth;
+            pushScc(prod, getLabel(fstStates[prod], sndStates[prod]));
+            if(numAct == act.length) {
+                act = Arrays.copyOf(act, 2 * numAct);
             }
-            return label;
+            act[numAct ++] = prod;
+            inAct.set(prod);
+            callStates[top] = prod;
+            callLetters[top] = 0;
+            callSndIndices[top] = -1;
+            callFstIndices[top] = -1;
         }
 
-        void strongConnect(ProductState prod) {
-            ++ depth;
-            dfsNum.put(prod.resState, depth);
-            sccs.push(new Elem(prod, getLabel(prod)));
-            act.push(prod.resState);
-            
-            Alphabet alphabet = fstOp.getAlphabet();
-            for (int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
-                for(int sndSucc : sndOp.getSuccessors(prod.sndState, letter)) {
-                    for(int fstSucc : fstOp.getSuccessors(prod.fstState, letter)) {
-                        ProductState succ = getOrAddState(fstSucc, sndSucc);
-                        if(needCE) result.getState(prod.resState).addTransition(letter, succ.resState);
-                        if (!dfsNum.containsKey(succ.resState)) {
-                            strongConnect(succ);
-                            if(!empty) return ;
-                        } else if (act.contains(succ.resState)) {
-                            // we have already seen it before, there is a loop
-                            // probably there is one final state without self-loop
-                            byte B = 0;
-                            ProductState u;
-                            do {
-                                Elem p = sccs.pop();
-                                u = p.state;
-                                B |= p.label;
-                                if(B == 3) {
-                                    empty = false;
-                                    return;
-                                }
-                            }while(dfsNum.get(u.resState) > dfsNum.get(succ.resState));
-                            sccs.push(new Elem(u, B));
+        // the recursion is simulated with the call stack to not overflow the Java stack
+        void strongConnect(int init) {
+            int top = 0;
+            pushCall(top, init);
+            while(top >= 0) {
+                final int prod = callStates[top];
+                final int fstState = fstStates[prod];
+                final int sndState = sndStates[prod];
+                int letter = callLetters[top];
+                int sndIndex = callSndIndices[top];
+                int fstIndex = callFstIndices[top];
+                int succ = -1;
+                // look for the next pair of successors
+                while (letter < fstOp.getAlphabetSize()) {
+                    final int fstBegin = fstOp.getSuccessorBegin(fstState, letter);
+                    final int fstEnd = fstOp.getSuccessorEnd(fstState, letter);
+                    if(sndIndex < 0) {
+                        if(fstBegin == fstEnd) {
+                            ++ letter;
+                            continue;
                         }
+                        sndIndex = sndOp.getSuccessorBegin(sndState, letter);
+                        fstIndex = fstBegin;
+                    }
+                    if(sndIndex >= sndOp.getSuccessorEnd(sndState, letter)) {
+                        ++ letter;
+                        sndIndex = -1;
+                        continue;
                     }
+                    if(fstIndex >= fstEnd) {
+                        ++ sndIndex;
+                        fstIndex = fstBegin;
+                        continue;
+                    }
+                    succ = getOrAddState(fstOp.getSuccessorAt(fstIndex), sndOp.getSuccessorAt(sndIndex));
+                    ++ fstIndex;
+                    break;
                 }
-            }
-            
-            // if current number is done, then we should remove all 
-            // active states in the same scc
-            if(sccs.peek().state.resState == prod.resState) {
-                sccs.pop();
-                int u = 0;
-                do {
-                    assert !act.isEmpty() : "Act empty";
-                    u = act.pop();
-                }while(u != prod.resState);
+                callLetters[top] = letter;
+                callSndIndices[top] = sndIndex;
+                callFstIndices[top] = fstIndex;
+                
+                if(succ >= 0) {
+                    if(needCE) result.getState(prod).addTransition(letter, succ);
+                    if (dfsNum[succ] == 0) {
+                        ++ top;
+                        pushCall(top, succ);
+                    } else if (inAct.get(succ)) {
+                        // we have already seen it before, there is a loop
+                        // probably there is one final state without self-loop
+                        byte B = 0;
+                        int u;
+                        do {
+                            -- numSccs;
+                            u = sccs[numSccs];
+                            B |= sccLabels[numSccs];
+                            if(B == 3) {
+                                empty = false;
+                                return;
+                            }
+                        }while(dfsNum[u] > dfsNum[succ]);
+                        pushScc(u, B);
+                    }
+                    continue;
+                }
+                
+                // if current number is done, then we should remove all 
+                // active states in the same scc
+                if(sccs[numSccs - 1] == prod) {
+                    -- numSccs;
+                    int u = 0;
+                    do {
+                        assert numAct > 0 : "Act empty";
+                        u = act[-- numAct];
+                        inAct.clear(u);
+                    }while(u != prod);
+                }
+                -- top;
             }
         }
     }
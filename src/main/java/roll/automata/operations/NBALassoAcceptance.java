@@ -0,0 +1,251 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.Arrays;
+
+import roll.automata.FrozenNFA;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Decides whether an NBA accepts the ultimately periodic word stem.loop^w
+ * without building the product with the lasso automaton. We first compute
+ * the states reached over stem, then search an accepting cycle in the graph
+ * whose nodes are the pairs (i, q) of a position i in loop and a state q,
+ * with the nested depth-first search of Schwoon and Esparza.
+ *
+ * Every thread keeps its own scratch buffers, so the check does not
+ * allocate once the buffers are large enough.
+ * */
+
+public final class NBALassoAcceptance {
+
+    private static final ThreadLocal<NBALassoAcceptance> INSTANCE
+        = ThreadLocal.withInitial(NBALassoAcceptance::new);
+
+    private static final byte WHITE = 0;
+    private static final byte CYAN = 1; // on the blue stack
+    private static final byte BLUE = 2;
+    private static final byte RED = 3;
+
+    private long[] currStates = new long[1];
+    private long[] nextStates = new long[1];
+    private byte[] colors = new byte[16];
+    private int[] blueNodes = new int[16];
+    private int[] blueIndices = new int[16];
+    private int[] redNodes = new int[16];
+    private int[] redIndices = new int[16];
+
+    // fields of the current check
+    private FrozenNFA nba;
+    private Word loop;
+    private int numStates;
+    private int numLetters;
+
+    private NBALassoAcceptance() {
+    }
+
+    public static boolean accepts(FrozenNFA nba, Word stem, Word loop) {
+        assert nba != null && stem != null && loop != null;
+        if(loop.isEmpty() || nba.getStateSize() == 0 || nba.getInitialState() < 0) {
+            return false;
+        }
+        NBALassoAcceptance checker = INSTANCE.get();
+        try {
+            return checker.check(nba, stem, loop);
+        }finally {
+            checker.nba = null;
+            checker.loop = null;
+        }
+    }
+
+    private boolean check(FrozenNFA nba, Word stem, Word loop) {
+        this.nba = nba;
+        this.loop = loop;
+        this.numStates = nba.getStateSize();
+        this.numLetters = nba.getAlphabetSize();
+        if(! runStem(stem)) {
+            return false;
+        }
+        final int numNodes = loop.length() * numStates;
+        ensureNodeCapacity(numNodes);
+        Arrays.fill(colors, 0, numNodes, WHITE);
+        // the nodes (0, q) with q reached over stem are the initial nodes
+        final int numWords = (numStates + 63) >>> 6;
+        for(int i = 0; i < numWords; i ++) {
+            long word = currStates[i];
+            while(word != 0) {
+                final int state = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if(colors[state] == WHITE && blueSearch(state)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // currStates will be the set of states reached over stem
+    private boolean runStem(Word stem) {
+        final int numWords = (numStates + 63) >>> 6;
+        if(currStates.length < numWords) {
+            currStates = new long[numWords];
+            nextStates = new long[numWords];
+        }
+        Arrays.fill(currStates, 0, numWords, 0L);
+        final int init = nba.getInitialState();
+        currStates[init >>> 6] |= 1L << init;
+        boolean nonEmpty = true;
+        for(int pos = 0; pos < stem.length() && nonEmpty; pos ++) {
+            final int letter = stem.getLetter(pos);
+            Arrays.fill(nextStates, 0, numWords, 0L);
+            nonEmpty = false;
+            for(int i = 0; i < numWords; i ++) {
+                long word = currStates[i];
+                while(word != 0) {
+                    final int state = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    final int end = getSuccessorEnd(state, letter);
+                    for(int index = getSuccessorBegin(state, letter); index < end; index ++) {
+                        final int succ = nba.getSuccessorAt(index);
+                        nextStates[succ >>> 6] |= 1L << succ;
+                        nonEmpty = true;
+                    }
+                }
+            }
+            long[] temp = currStates;
+            currStates = nextStates;
+            nextStates = temp;
+        }
+        return nonEmpty;
+    }
+
+    private void ensureNodeCapacity(int numNodes) {
+        if(colors.length >= numNodes) {
+            return;
+        }
+        int capacity = Math.max(numNodes, colors.length * 2);
+        colors = new byte[capacity];
+        blueNodes = new int[capacity];
+        blueIndices = new int[capacity];
+        redNodes = new int[capacity];
+        redIndices = new int[capacity];
+    }
+
+    // ------------- graph of pairs (i, q) -------------------------
+    private int getSuccessorBegin(int state, int letter) {
+        return letter < numLetters ? nba.getSuccessorBegin(state, letter) : 0;
+    }
+
+    private int getSuccessorEnd(int state, int letter) {
+        return letter < numLetters ? nba.getSuccessorEnd(state, letter) : 0;
+    }
+
+    private int getPosition(int node) {
+        return node / numStates;
+    }
+
+    private int getState(int node) {
+        return node % numStates;
+    }
+
+    private int getSuccessorBegin(int node) {
+        return getSuccessorBegin(getState(node), loop.getLetter(getPosition(node)));
+    }
+
+    private int getSuccessorEnd(int node) {
+        return getSuccessorEnd(getState(node), loop.getLetter(getPosition(node)));
+    }
+
+    // the node of the successor state at index in the next position
+    private int getSuccessorNode(int node, int index) {
+        int position = getPosition(node) + 1;
+        if(position == loop.length()) {
+            position = 0;
+        }
+        return position * numStates + nba.getSuccessorAt(index);
+    }
+
+    private boolean isFinal(int node) {
+        return nba.isFinal(getState(node));
+    }
+
+    // ------------- nested depth-first search -------------------------
+    private boolean blueSearch(int root) {
+        int top = 0;
+        blueNodes[top] = root;
+        blueIndices[top] = getSuccessorBegin(root);
+        colors[root] = CYAN;
+        while(top >= 0) {
+            final int node = blueNodes[top];
+            if(blueIndices[top] < getSuccessorEnd(node)) {
+                final int succ = getSuccessorNode(node, blueIndices[top]);
+                blueIndices[top] ++;
+                if(colors[succ] == CYAN && (isFinal(node) || isFinal(succ))) {
+                    return true;
+                }
+                if(colors[succ] == WHITE) {
+                    top ++;
+                    blueNodes[top] = succ;
+                    blueIndices[top] = getSuccessorBegin(succ);
+                    colors[succ] = CYAN;
+                }
+                continue;
+            }
+            // all successors have been visited
+            if(isFinal(node)) {
+                if(redSearch(node)) {
+                    return true;
+                }
+                colors[node] = RED;
+            }else {
+                colors[node] = BLUE;
+            }
+            top --;
+        }
+        return false;
+    }
+
+    // whether some cyan node is reachable from the final node seed
+    private boolean redSearch(int seed) {
+        int top = 0;
+        redNodes[top] = seed;
+        redIndices[top] = getSuccessorBegin(seed);
+        while(top >= 0) {
+            final int node = redNodes[top];
+            if(redIndices[top] < getSuccessorEnd(node)) {
+                final int succ = getSuccessorNode(node, redIndices[top]);
+                redIndices[top] ++;
+                if(colors[succ] == CYAN) {
+                    return true;
+                }
+                if(colors[succ] == BLUE) {
+                    colors[succ] = RED;
+                    top ++;
+                    redNodes[top] = succ;
+                    redIndices[top] = getSuccessorBegin(succ);
+                }
+                continue;
+            }
+            top --;
+        }
+        return false;
+    }
+
+}
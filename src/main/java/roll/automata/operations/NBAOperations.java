@@ -31,8 +31,10 @@ import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 import roll.automata.StateNFA;
+import roll.util.IntIterator;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
 import roll.words.Alphabet;
@@ -86,15 +88,16 @@ public class NBAOperations {
     
     public static boolean accepts(NBA nba, Word stem, Word loop) {
         assert nba != null && stem != null && loop != null;
-        NBALasso lasso = new NBALasso(stem, loop);
-        if(loop.isEmpty()) return false;
-        NBAIntersectionCheck checker = new NBAIntersectionCheck(nba, lasso.getNBA());
-        return !checker.isEmpty();
+        return NBALassoAcceptance.accepts(nba.freeze(), stem, loop);
     }
     
 
     
     public static boolean isSemideterministic(NBA result) {
+        return isSemideterministic(result.freeze());
+    }
+    
+    public static boolean isSemideterministic(FrozenNFA result) {
 //        NBA result = removeDeadStates(input);
         ISet finalStates = result.getFinalStates();
         LinkedList<Integer> workList = new LinkedList<>();
@@ -109,13 +112,13 @@ public class NBAOperations {
             if(visited.get(s)) continue;
             visited.set(s);
             for(int c = 0; c < result.getAlphabetSize(); c ++) {
-                ISet succs = result.getSuccessors(s, c);
-                if(succs.isEmpty()) continue;
-                if(succs.cardinality() > 1) return false;
-                for(final int sp : succs) {
-                    if(! visited.get(sp)) {
-                        workList.addFirst(sp);
-                    }
+                final int begin = result.getSuccessorBegin(s, c);
+                final int end = result.getSuccessorEnd(s, c);
+                if(begin == end) continue;
+                if(end - begin > 1) return false;
+                final int sp = result.getSuccessorAt(begin);
+                if(! visited.get(sp)) {
+                    workList.addFirst(sp);
                 }
             }
         }
@@ -149,12 +152,15 @@ public class NBAOperations {
         ISet visited = UtilISet.newISet();
         visited.set(init);
         ISet used = UtilISet.newISet();
+        FrozenNFA frozen = input.freeze();
         while(! queue.isEmpty()) {
             int lState = queue.remove();
             int rState = getState(reach, input, lState, map);
             used.set(rState);
-            for(int c = 0; c < input.getAlphabetSize(); c ++) {
-                for(int lSucc : input.getSuccessors(lState, c)) {
+            for(int c = 0; c < frozen.getAlphabetSize(); c ++) {
+                final int end = frozen.getSuccessorEnd(lState, c);
+                for(int index = frozen.getSuccessorBegin(lState, c); index < end; index ++) {
+                    final int lSucc = frozen.getSuccessorAt(index);
                     int rSucc = getState(reach, input, lSucc, map);
                     // record outgoing transitions
                     reach.getState(rState).addTransition(c, rSucc);
@@ -174,19 +180,22 @@ public class NBAOperations {
         }
         // repeatedly removing dead states
         ISet unused = UtilISet.newISet();
+        FrozenNFA reachFrozen = reach.freeze();
         // ---------------------------------------------------------
         // secondly remove all reachable states which are dead states
         while(true) {
             boolean changed = false;
             // find one state which is dead
             ISet temp = UtilISet.newISet();
-            for(final int s : used) {
-                StateNFA st = reach.getState(s);
+            IntIterator iter = used.intIterator();
+            while(iter.hasNext()) {
+                final int s = iter.nextInt();
                 boolean hasSucc = false;
-                for(int c = 0; c < reach.getAlphabetSize(); c ++) {
-                    for(int succ : st.getSuccessors(c)) {
-                        if(unused.get(succ)) continue;
+                final int end = reachFrozen.getOutEnd(s);
+                for(int index = reachFrozen.getOutBegin(s); index < end; index ++) {
+                    if(! unused.get(reachFrozen.getSuccessorAt(index))) {
                         hasSucc = true;
+                        break;
                     }
                 }
                 if(! hasSucc) {
@@ -214,7 +223,9 @@ public class NBAOperations {
         while(true) {
             backReached.or(reachedFinals);
             ISet prevs = UtilISet.newISet();
-            for(final int s : reachedFinals) {
+            IntIterator iter = reachedFinals.intIterator();
+            while(iter.hasNext()) {
+                final int s = iter.nextInt();
                 StateContainer sC = mapReach.get(s);
                 if( sC == null && s == reach.getInitialState()) {
                     continue;
@@ -253,8 +264,10 @@ public class NBAOperations {
             // ignore unused states
             if(! backReached.get(lState)) continue;
             int rState = getState(result, reach, lState, map);
-            for(int c = 0; c < reach.getAlphabetSize(); c ++) {
-                for(int lSucc : reach.getSuccessors(lState, c)) {
+            for(int c = 0; c < reachFrozen.getAlphabetSize(); c ++) {
+                final int end = reachFrozen.getSuccessorEnd(lState, c);
+                for(int index = reachFrozen.getSuccessorBegin(lState, c); index < end; index ++) {
+                    final int lSucc = reachFrozen.getSuccessorAt(index);
                     if(! backReached.get(lSucc)) continue;
                     int rSucc = getState(result, reach, lSucc, map);
                     // record outgoing transitions
@@ -26,6 +26,7 @@ import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import roll.automata.DFA;
 import roll.automata.NFA;
+import roll.util.IntIterator;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
 
@@ -68,8 +69,9 @@ public class NFAOperations {
             }
 
             for (int letter = 0; letter < nfa.getAlphabetSize(); letter ++) {
-                for(int succNr : nfa.getSuccessors(stateNr, letter)) {
-                    State stateSucc = getState(map, succNr);
+                IntIterator succIter = nfa.getSuccessors(stateNr, letter).intIterator();
+                while(succIter.hasNext()) {
+                    State stateSucc = getState(map, succIter.nextInt());
                     state.addTransition(new Transition(nfa.getAlphabet().getLetter(letter), stateSucc));
                 }
             }
@@ -134,7 +136,9 @@ public class NFAOperations {
             visited.set(stateNr);
             State state = getState(map, stateNr);
             for (int letter = 0; letter < nfa.getAlphabetSize(); letter ++) {
-                for(int succNr :  nfa.getSuccessors(stateNr, letter)) {
+                IntIterator succIter = nfa.getSuccessors(stateNr, letter).intIterator();
+                while(succIter.hasNext()) {
+                    int succNr = succIter.nextInt();
                     State stateSucc = getState(map, succNr);
                     state.addTransition(
                             new Transition(nfa.getAlphabet().getLetter(letter),
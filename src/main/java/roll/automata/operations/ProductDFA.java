@@ -0,0 +1,299 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.Arrays;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import roll.automata.DFA;
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+import roll.words.Alphabet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * The minimal DFA of the product of the runs of several DFAs, each of which
+ * starts from a given state. The product is explored on the fly, a tuple of
+ * states is numbered through a map from long keys, and then the states which
+ * can not reach a final state are removed and the rest is minimized. There
+ * is no state for the empty residual language, so the successor of a state
+ * may be -1 and a product with empty language has no states at all.
+ * An undefined successor of a DFA means the run is dead, unless that DFA is
+ * completed, then the run goes to the sink state numbered by the state size
+ * of the DFA, which is needed when the final states are complemented.
+ * */
+
+public class ProductDFA {
+
+    // whether the tuple of states of the DFAs is final
+    public interface Acceptance {
+        boolean isFinal(int[] tuple);
+    }
+
+    private final int numLetters;
+    private int numStates;
+    private int initialState = -1;
+    private int[] successors;  // state * numLetters + letter
+    private ISet finalStates;
+
+    private ProductDFA(int numLetters) {
+        this.numLetters = numLetters;
+        this.successors = new int[0];
+        this.finalStates = UtilISet.newISet();
+    }
+
+    public static ProductDFA build(DFA[] dfas, int[] inits, Acceptance acc) {
+        return build(dfas, inits, new boolean[dfas.length], acc);
+    }
+
+    public static ProductDFA build(DFA[] dfas, int[] inits, boolean[] completed, Acceptance acc) {
+        assert dfas.length == inits.length && dfas.length == completed.length && dfas.length > 0;
+        ProductDFA result = new ProductDFA(dfas[0].getAlphabetSize());
+        result.explore(dfas, inits, completed, acc);
+        result.minimize();
+        return result;
+    }
+
+    public int getStateSize() {
+        return numStates;
+    }
+
+    public int getAlphabetSize() {
+        return numLetters;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    public boolean isEmpty() {
+        return numStates == 0;
+    }
+
+    public boolean isFinal(int state) {
+        return finalStates.get(state);
+    }
+
+    public ISet getFinalStates() {
+        return finalStates.clone();
+    }
+
+    public int getSuccessor(int state, int letter) {
+        return successors[state * numLetters + letter];
+    }
+
+    // -------------------------------------------------------------------
+    private void explore(DFA[] dfas, int[] inits, boolean[] completed, Acceptance acc) {
+        final int arity = dfas.length;
+        // tuple (s_0, ..., s_k) is encoded as s_0 * n_1 * ... * n_k + ... + s_k
+        TLongIntMap map = new TLongIntHashMap(16, 0.5f, -1L, -1);
+        int[] tuples = new int[arity * 16];
+        int[] tuple = new int[arity];
+        int[] succTuple = new int[arity];
+        successors = new int[numLetters * 16];
+        System.arraycopy(inits, 0, tuples, 0, arity);
+        map.put(getKey(dfas, completed, inits), 0);
+        numStates = 1;
+        for(int state = 0; state < numStates; state ++) {
+            System.arraycopy(tuples, state * arity, tuple, 0, arity);
+            if(acc.isFinal(tuple)) {
+                finalStates.set(state);
+            }
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = -1;
+                boolean defined = true;
+                for(int i = 0; i < arity && defined; i ++) {
+                    final int sink = dfas[i].getStateSize();
+                    succTuple[i] = tuple[i] == sink ? -1 : dfas[i].getSuccessor(tuple[i], letter);
+                    if(succTuple[i] < 0 && completed[i]) {
+                        succTuple[i] = sink;
+                    }
+                    defined = succTuple[i] >= 0;
+                }
+                if(defined) {
+                    long key = getKey(dfas, completed, succTuple);
+                    succ = map.get(key);
+                    if(succ < 0) {
+                        succ = numStates ++;
+                        map.put(key, succ);
+                        if(tuples.length < numStates * arity) {
+                            tuples = Arrays.copyOf(tuples, tuples.length * 2);
+                            successors = Arrays.copyOf(successors, successors.length * 2);
+                        }
+                        System.arraycopy(succTuple, 0, tuples, succ * arity, arity);
+                    }
+                }
+                successors[state * numLetters + letter] = succ;
+            }
+        }
+        initialState = 0;
+    }
+
+    private static long getKey(DFA[] dfas, boolean[] completed, int[] tuple) {
+        long key = 0;
+        for(int i = 0; i < tuple.length; i ++) {
+            key = key * (dfas[i].getStateSize() + (completed[i] ? 1 : 0)) + tuple[i];
+        }
+        return key;
+    }
+
+    // remove the states which can not reach a final state, and merge the
+    // states with the same residual language by partition refinement
+    private void minimize() {
+        ISet live = finalStates.clone();
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int state = 0; state < numStates; state ++) {
+                if(live.get(state)) continue;
+                for(int letter = 0; letter < numLetters; letter ++) {
+                    int succ = successors[state * numLetters + letter];
+                    if(succ >= 0 && live.get(succ)) {
+                        live.set(state);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        if(! live.get(initialState)) {
+            numStates = 0;
+            initialState = -1;
+            successors = new int[0];
+            finalStates = UtilISet.newISet();
+            return;
+        }
+        // dead states are in block -1, the others are split into final and
+        // non-final states, numBlocks only counts the blocks in use
+        int[] blocks = new int[numStates];
+        boolean hasFinal = false, hasNonFinal = false;
+        for(int state = 0; state < numStates; state ++) {
+            blocks[state] = ! live.get(state) ? -1 : (finalStates.get(state) ? 1 : 0);
+            hasFinal = hasFinal || blocks[state] == 1;
+            hasNonFinal = hasNonFinal || blocks[state] == 0;
+        }
+        int numBlocks = (hasFinal ? 1 : 0) + (hasNonFinal ? 1 : 0);
+        Integer[] order = new Integer[numStates];
+        int[] signature = new int[numStates * (numLetters + 1)];
+        while(true) {
+            // a state is identified by its block and the blocks of its successors
+            final int width = numLetters + 1;
+            for(int state = 0; state < numStates; state ++) {
+                order[state] = state;
+                signature[state * width] = blocks[state];
+                for(int letter = 0; letter < numLetters; letter ++) {
+                    int succ = successors[state * numLetters + letter];
+                    signature[state * width + letter + 1] = succ < 0 ? -1 : blocks[succ];
+                }
+            }
+            Arrays.sort(order, (s1, s2) -> compare(signature, s1 * width, s2 * width, width));
+            int[] newBlocks = new int[numStates];
+            int numNewBlocks = 0;
+            for(int index = 0; index < numStates; index ++) {
+                final int state = order[index];
+                if(blocks[state] < 0) {
+                    newBlocks[state] = -1;
+                    continue;
+                }
+                if(index > 0 && blocks[order[index - 1]] >= 0
+                && compare(signature, order[index - 1] * width, state * width, width) == 0) {
+                    newBlocks[state] = newBlocks[order[index - 1]];
+                }else {
+                    newBlocks[state] = numNewBlocks ++;
+                }
+            }
+            blocks = newBlocks;
+            if(numNewBlocks == numBlocks) {
+                break;
+            }
+            numBlocks = numNewBlocks;
+        }
+        quotient(blocks, numBlocks);
+    }
+
+    private static int compare(int[] signature, int first, int second, int width) {
+        for(int i = 0; i < width; i ++) {
+            int diff = Integer.compare(signature[first + i], signature[second + i]);
+            if(diff != 0) return diff;
+        }
+        return 0;
+    }
+
+    // the states of the quotient are numbered in breadth-first order
+    private void quotient(int[] blocks, int numBlocks) {
+        int[] representatives = new int[numBlocks];
+        int[] numbers = new int[numBlocks];
+        Arrays.fill(numbers, -1);
+        int[] queue = new int[numBlocks];
+        int head = 0, tail = 0;
+        numbers[blocks[initialState]] = tail;
+        representatives[tail ++] = initialState;
+        int[] newSuccessors = new int[numBlocks * numLetters];
+        ISet newFinalStates = UtilISet.newISet();
+        while(head < tail) {
+            final int number = head;
+            final int state = representatives[head ++];
+            if(finalStates.get(state)) {
+                newFinalStates.set(number);
+            }
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = successors[state * numLetters + letter];
+                if(succ < 0 || blocks[succ] < 0) {
+                    newSuccessors[number * numLetters + letter] = -1;
+                    continue;
+                }
+                if(numbers[blocks[succ]] < 0) {
+                    numbers[blocks[succ]] = tail;
+                    representatives[tail ++] = succ;
+                }
+                newSuccessors[number * numLetters + letter] = numbers[blocks[succ]];
+            }
+        }
+        numStates = tail;
+        initialState = 0;
+        successors = newSuccessors;
+        finalStates = newFinalStates;
+    }
+
+    // -------------------------------------------------------------------
+    // used for the constructions which still work on dk.brics automata
+    Automaton toDkAutomaton(Alphabet alphabet) {
+        Automaton dkAut = new Automaton();
+        State[] states = new State[numStates];
+        for(int state = 0; state < numStates; state ++) {
+            states[state] = new State();
+            states[state].setAccept(finalStates.get(state));
+        }
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = getSuccessor(state, letter);
+                if(succ >= 0) {
+                    states[state].addTransition(new Transition(alphabet.getLetter(letter), states[succ]));
+                }
+            }
+        }
+        dkAut.setInitialState(states[initialState]);
+        dkAut.setDeterministic(true);
+        return dkAut;
+    }
+
+}
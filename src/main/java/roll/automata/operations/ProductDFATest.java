@@ -0,0 +1,87 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dk.brics.automaton.Automaton;
+import roll.automata.DFA;
+import roll.automata.FDFA;
+import roll.words.Alphabet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Regression checks for the products built by ProductDFA: a progress DFA
+ * whose states are all final must not be minimized to a single state, and
+ * the complement of a partial progress DFA in D2 must accept the words
+ * which leave the progress DFA.
+ * */
+
+public class ProductDFATest {
+
+    private static int numOfFailures = 0;
+
+    public static void main(String[] args) {
+        Alphabet alphabet = new Alphabet();
+        alphabet.addLetter('a');
+        alphabet.addLetter('b');
+        // leading DFA with only one state
+        DFA autL = new DFA(alphabet);
+        autL.createState();
+        autL.setInitial(0);
+        autL.getState(0).addTransition(alphabet.indexOf('a'), 0);
+        autL.getState(0).addTransition(alphabet.indexOf('b'), 0);
+        // partial progress DFA accepting {e, a, aa}, all states are final
+        DFA autP = new DFA(alphabet);
+        for(int stateNr = 0; stateNr < 3; stateNr ++) {
+            autP.createState();
+            autP.setFinal(stateNr);
+        }
+        autP.setInitial(0);
+        autP.getState(0).addTransition(alphabet.indexOf('a'), 1);
+        autP.getState(1).addTransition(alphabet.indexOf('a'), 2);
+
+        ProductDFA product = ProductDFA.build(new DFA[] {autP}, new int[] {0}
+                , tuple -> autP.isFinal(tuple[0]));
+        check("all final product has 3 states", product.getStateSize() == 3);
+
+        List<DFA> autPs = new ArrayList<>();
+        autPs.add(autP);
+        FDFA fdfa = new FDFA(autL, autPs);
+        Automaton dOne = FDFAOperations.buildDOne(fdfa);
+        check("D1 accepts $aa", dOne.run(Alphabet.DOLLAR + "aa"));
+        check("D1 rejects $aaa", ! dOne.run(Alphabet.DOLLAR + "aaa"));
+        check("D1 rejects $aaaa", ! dOne.run(Alphabet.DOLLAR + "aaaa"));
+        Automaton dTwo = FDFAOperations.buildDTwo(fdfa);
+        check("D2 rejects $aa", ! dTwo.run(Alphabet.DOLLAR + "aa"));
+        check("D2 accepts $aaa", dTwo.run(Alphabet.DOLLAR + "aaa"));
+        check("D2 accepts $b", dTwo.run(Alphabet.DOLLAR + "b"));
+        check("D2 accepts $bab", dTwo.run(Alphabet.DOLLAR + "bab"));
+
+        if(numOfFailures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(String name, boolean result) {
+        System.out.println(name + " : " + (result ? "ok" : "FAILED"));
+        if(! result) numOfFailures ++;
+    }
+
+}
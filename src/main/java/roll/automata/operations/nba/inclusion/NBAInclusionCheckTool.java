@@ -144,7 +144,7 @@ public class NBAInclusionCheckTool {
             for (int letter = 0; letter < nba.getAlphabetSize(); letter++) {
                 if (nba.getAlphabet().indexOf(Alphabet.DOLLAR) == letter)
                     continue;
-                for (int succNr : nba.getSuccessors(stateNr, letter)) {
+                for (int succNr : nba.getSuccessors(stateNr, letter).toIntArray()) {
                     out.println("[" + labelFunc.apply(letter) + "]  " + succNr);
                 }
             }
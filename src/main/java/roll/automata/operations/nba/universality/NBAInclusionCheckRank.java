@@ -19,10 +19,9 @@ package roll.automata.operations.nba.universality;
 import java.util.Set;
 import java.util.TreeSet;
 
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
-import roll.automata.StateNFA;
 import roll.automata.operations.NBAOperations;
-import roll.automata.operations.StateContainer;
 import roll.util.sets.ISet;
 
 /**
@@ -34,18 +33,22 @@ import roll.util.sets.ISet;
  * */
 
 public class NBAInclusionCheckRank {
-    private final NBA A;
-    private final NBA B;
+    private final FrozenNFA A;
+    private final FrozenNFA B;
     private final int k;
     private final int infinity;
-    private final StateContainer[] stCs; 
+    private final int[] predOffsets; // state * |alphabet| + letter -> first index in preds
+    private final int[] preds;
     private final LevelRanking emptyRank;
     private final LevelRanking wholeRank;
     
     public NBAInclusionCheckRank(NBA A, NBA B) {
+        this(A.freeze(), B.freeze());
+    }
+    
+    public NBAInclusionCheckRank(FrozenNFA A, FrozenNFA B) {
         this.A = A;
         this.B = B;
-        this.stCs = new StateContainer[A.getStateSize()];
         ISet acc = B.getFinalStates();
         boolean isSemiDet = NBAOperations.isSemideterministic(B);
         if(isSemiDet) {
@@ -56,17 +59,32 @@ public class NBAInclusionCheckRank {
         this.infinity = k + 2;
         this.wholeRank = new LevelRankingUniversal(B.getStateSize(), infinity);
         this.emptyRank = new LevelRankingEmpty(B.getStateSize(), infinity);
+        this.predOffsets = new int[A.getStateSize() * A.getAlphabetSize() + 1];
+        this.preds = new int[A.getTransitionSize()];
         initializePredecessors();
     }
     
+    // predecessors of A in the same layout as the successors of FrozenNFA
     private void initializePredecessors() {
+        final int numLetters = A.getAlphabetSize();
         for(int i = 0; i < A.getStateSize(); i ++) {
-            for(int c = 0; c < A.getAlphabetSize(); c ++) {
-                for(int succ : A.getSuccessors(i, c)) {
-                    if(stCs[succ] == null) {
-                        stCs[succ] = new StateContainer(succ, A);
-                    }
-                    stCs[succ].addPredecessors(c, i);
+            for(int c = 0; c < numLetters; c ++) {
+                final int end = A.getSuccessorEnd(i, c);
+                for(int index = A.getSuccessorBegin(i, c); index < end; index ++) {
+                    predOffsets[A.getSuccessorAt(index) * numLetters + c + 1] ++;
+                }
+            }
+        }
+        for(int i = 1; i < predOffsets.length; i ++) {
+            predOffsets[i] += predOffsets[i - 1];
+        }
+        int[] next = new int[predOffsets.length - 1];
+        System.arraycopy(predOffsets, 0, next, 0, next.length);
+        for(int i = 0; i < A.getStateSize(); i ++) {
+            for(int c = 0; c < numLetters; c ++) {
+                final int end = A.getSuccessorEnd(i, c);
+                for(int index = A.getSuccessorBegin(i, c); index < end; index ++) {
+                    preds[next[A.getSuccessorAt(index) * numLetters + c] ++] = i;
                 }
             }
         }
@@ -229,15 +247,14 @@ public class NBAInclusionCheckRank {
         for(int c = 0; c < A.getAlphabetSize(); c ++) {
             for(StateSetKVMHInclusion succ : succs) {
                 // check the predecessors of A
-                StateContainer stC = stCs[succ.left];
-                if(stC == null) continue;
-                Set<StateNFA> lPrevs = stC.getPredecessors(c);
-                if(lPrevs.isEmpty()) continue;
+                final int predBegin = predOffsets[succ.left * A.getAlphabetSize() + c];
+                final int predEnd = predOffsets[succ.left * A.getAlphabetSize() + c + 1];
+                if(predBegin == predEnd) continue;
                 // we have to compute previous of B
                 Set<StateSetKVMH> rPrevs = UtilLevelRanking.preUniv(succ, c, B, k, infinity, emptyRank);
-                for(StateNFA lPrev : lPrevs) {
+                for(int index = predBegin; index < predEnd; index ++) {
                     for(StateSetKVMH rPrev : rPrevs) {
-                        lPre.add(new StateSetKVMHInclusion(lPrev.getId(), rPrev.s, rPrev.o));
+                        lPre.add(new StateSetKVMHInclusion(preds[index], rPrev.s, rPrev.o));
                     }
                 }
             }
@@ -21,6 +21,7 @@ import java.util.TreeSet;
 
 import roll.automata.NBA;
 import roll.automata.operations.NBAOperations;
+import roll.util.IntIterator;
 import roll.util.sets.ISet;
 
 /**
@@ -202,7 +203,9 @@ public class NBAUniversalityCheck {
         boolean isEmptyO = true;
         for(int l = 0; l < nba.getStateSize(); l ++) {
             fO.addRank(l, 0);
-            for(int lp : nba.getSuccessors(l, c)) {
+            IntIterator succIter = nba.getSuccessors(l, c).intIterator();
+            while(succIter.hasNext()) {
+                int lp = succIter.nextInt();
                 if(nba.isFinal(lp)) {
                     fO.addRank(l, Integer.max(fO.getRank(l), fOp.getRank(lp)));
                 }else {
@@ -226,8 +229,9 @@ public class NBAUniversalityCheck {
             LevelRanking fS = new LevelRankingFunction(stateSize, infinity);
             for(int l = 0; l < nba.getStateSize(); l ++) {
                 int max = -1;
-                for(int lp : nba.getSuccessors(l, c)) {
-                    max = Integer.max(max, fSp.getRank(lp));
+                IntIterator succIter = nba.getSuccessors(l, c).intIterator();
+                while(succIter.hasNext()) {
+                    max = Integer.max(max, fSp.getRank(succIter.nextInt()));
                 }
                 fS.addRank(l, max);
                 if(nba.isFinal(l)) {
@@ -19,6 +19,7 @@ package roll.automata.operations.nba.universality;
 import java.util.Set;
 import java.util.TreeSet;
 
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 
 /**
@@ -52,6 +53,10 @@ public class UtilLevelRanking {
     
     
     public static Set<StateSetKVMH> preUniv(StateSetKVMH succ, int c, NBA B, int K, int infinity, LevelRanking emptyRank) {
+        return preUniv(succ, c, B.freeze(), K, infinity, emptyRank);
+    }
+    
+    public static Set<StateSetKVMH> preUniv(StateSetKVMH succ, int c, FrozenNFA B, int K, int infinity, LevelRanking emptyRank) {
         Set<StateSetKVMH> lPre = new TreeSet<>();
         LevelRanking fOp = succ.o;
         LevelRanking fSp = succ.s;
@@ -60,7 +65,9 @@ public class UtilLevelRanking {
         boolean isEmptyO = true;
         for(int l = 0; l < B.getStateSize(); l ++) {
             fO.addRank(l, 0);
-            for(int lp : B.getSuccessors(l, c)) {
+            final int end = B.getSuccessorEnd(l, c);
+            for(int index = B.getSuccessorBegin(l, c); index < end; index ++) {
+                final int lp = B.getSuccessorAt(index);
                 if(B.isFinal(lp)) {
                     fO.addRank(l, Integer.max(fO.getRank(l), fOp.getRank(lp)));
                 }else {
@@ -84,8 +91,9 @@ public class UtilLevelRanking {
             LevelRanking fS = new LevelRankingFunction(stateSize, infinity);
             for(int l = 0; l < B.getStateSize(); l ++) {
                 int max = -1;
-                for(int lp : B.getSuccessors(l, c)) {
-                    max = Integer.max(max, fSp.getRank(lp));
+                final int end = B.getSuccessorEnd(l, c);
+                for(int index = B.getSuccessorBegin(l, c); index < end; index ++) {
+                    max = Integer.max(max, fSp.getRank(B.getSuccessorAt(index)));
                 }
                 fS.addRank(l, max);
                 if(B.isFinal(l)) {
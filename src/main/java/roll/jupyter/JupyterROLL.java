@@ -384,6 +384,7 @@ public class JupyterROLL {
     
     private static class MQOracle implements MembershipOracle<HashableValue> {
         private Function<Query<HashableValue>,Boolean>  delegate;
+        private Function<Query<HashableValue>,String>  word;
 
         MQOracle(BiFunction<String, String, Boolean> f) {
             this.delegate = (query -> f.apply(
@@ -391,6 +392,7 @@ public class JupyterROLL {
                     query.getSuffix().toStringExact()
                 )
             );
+            this.word = (query -> query.getPrefix().toStringExact() + "$" + query.getSuffix().toStringExact());
         }
 
         MQOracle(Function<String, Boolean> f) {
@@ -398,12 +400,30 @@ public class JupyterROLL {
                     query.getQueriedWord().toStringExact()
                 )
             );
+            this.word = (query -> query.getQueriedWord().toStringExact());
         }
 
         @Override
         public HashableValue answerMembershipQuery(Query<HashableValue> query) {
             return new HashableValueBoolean(this.delegate.apply(query));
         }
+        
+        // each call goes to the notebook, so the same word is only asked once in a batch
+        @Override
+        public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+            Map<String, HashableValue> answered = new HashMap<>();
+            List<HashableValue> answers = new ArrayList<>(queries.size());
+            for(Query<HashableValue> query : queries) {
+                String queryWord = this.word.apply(query);
+                HashableValue answer = answered.get(queryWord);
+                if(answer == null) {
+                    answer = answerMembershipQuery(query);
+                    answered.put(queryWord, answer);
+                }
+                answers.add(answer);
+            }
+            return answers;
+        }
 
 
     }
@@ -110,25 +110,64 @@ public abstract class LearnerBase<M> implements Learner<M, HashableValue>, IHTML
         throw new UnsupportedOperationException("Learner does not support makeMembershipQuery(ObservationRow, int, ExprValue)");
     }
     
+    // value to be stored for the answer of the membership query made for (word, exprValue)
+    protected HashableValue processMembershipAnswer(Word word, ExprValue exprValue, HashableValue answer) {
+        return answer;
+    }
+    
+    // answer of the query if the learner already knows it, otherwise null
+    protected HashableValue getKnownMembershipAnswer(Query<HashableValue> query) {
+        return null;
+    }
+    
     protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue exprValue) {
         Query<HashableValue> query = makeMembershipQuery(row, offset, exprValue);
-        HashableValue result = membershipOracle.answerMembershipQuery(query);
-        Query<HashableValue> queryResult = makeMembershipQuery(row, offset, exprValue);
-        queryResult.answerQuery(result);
-        return queryResult;
+        HashableValue result = getKnownMembershipAnswer(query);
+        if(result == null) {
+            result = membershipOracle.answerMembershipQuery(query);
+        }
+        query.answerQuery(processMembershipAnswer(row.getWord(), exprValue, result));
+        return query;
     }
     
+    // all queries are made first and then answered in one batch
     protected void processMembershipQueries(ObservationTable observationTable, List<ObservationRow> rows
             , int colOffset, int length) {
-        List<Query<HashableValue>> results = new ArrayList<>();
+        List<Query<HashableValue>> queries = new ArrayList<>();
         List<ExprValue> columns = observationTable.getColumns();
         int endNr = length + colOffset;
         for(ObservationRow row : rows) {
             for(int colNr = colOffset; colNr < endNr; colNr ++) {
-                results.add(processMembershipQuery(row, colNr, columns.get(colNr)));
+                queries.add(makeMembershipQuery(row, colNr, columns.get(colNr)));
             }
         }
-        putQueryAnswers(results);
+        if(queries.isEmpty()) return;
+        // only the queries with unknown answers go to the oracle
+        HashableValue[] answers = new HashableValue[queries.size()];
+        List<Query<HashableValue>> unknownQueries = new ArrayList<>();
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            answers[queryNr] = getKnownMembershipAnswer(queries.get(queryNr));
+            if(answers[queryNr] == null) {
+                unknownQueries.add(queries.get(queryNr));
+            }
+        }
+        if(! unknownQueries.isEmpty()) {
+            List<HashableValue> results = membershipOracle.answerMembershipQueries(unknownQueries);
+            assert results.size() == unknownQueries.size();
+            int unknownNr = 0;
+            for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+                if(answers[queryNr] == null) {
+                    answers[queryNr] = results.get(unknownNr ++);
+                }
+            }
+        }
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            Query<HashableValue> query = queries.get(queryNr);
+            HashableValue result = processMembershipAnswer(query.getPrefixRow().getWord()
+                    , columns.get(query.getSuffixColumn()), answers[queryNr]);
+            query.answerQuery(result);
+        }
+        putQueryAnswers(queries);
     }
         
     protected void putQueryAnswers(List<Query<HashableValue>> queries) {
@@ -75,61 +75,128 @@ public abstract class LearnerDFA extends LearnerFA<DFA> {
             return this.exprValue.get();
         }
         
+        // the run of the hypothesis over the counterexample v and the answers
+        // MQ(S(i) v[i+1..n]) asked so far, where S(i) is the label of the state
+        // reached over v[1..i], so every pair (S(i), v[i+1..n]) is asked at most once
+        protected int[] runStates;
+        protected HashableValue[] runValues;
+        
         protected CeAnalysisResult findBreakIndex() {
             Word wordCE = getWordExperiment();
+            runStates = new int[wordCE.length() + 1];
+            runValues = new HashableValue[wordCE.length() + 1];
+            runStates[0] = hypothesis.getInitialState();
+            for(int letterNr = 0; letterNr < wordCE.length(); letterNr ++) {
+                runStates[letterNr + 1] = hypothesis.getSuccessor(runStates[letterNr], wordCE.getLetter(letterNr));
+            }
+            switch(options.ceSearch) {
+            case BINARY:
+                return findBreakIndexBinary(wordCE);
+            case EXPONENTIAL:
+                return findBreakIndexExponential(wordCE);
+            case PARTITION:
+                return findBreakIndexPartition(wordCE);
+            default:
+                return findBreakIndexLinear(wordCE);
+            }
+        }
+        
+        protected HashableValue getRunValue(Word wordCE, int index) {
+            if(runValues[index] == null) {
+                runValues[index] = processMembershipQuery(getStateLabel(runStates[index]), wordCE.getSuffix(index));
+            }
+            return runValues[index];
+        }
+        
+        private CeAnalysisResult findBreakIndexLinear(Word wordCE) {
+            CeAnalysisResult ceResult = new CeAnalysisResult();
+            int letterNr = 0;
+            for (letterNr = 0; letterNr < wordCE.length(); letterNr++) {
+                HashableValue memMq = getRunValue(wordCE, letterNr + 1);
+                if (! result.valueEqual(memMq)) {
+                    ceResult.prevValue = result;
+                    ceResult.currValue = memMq;
+                    break;
+                }
+            }
+            ceResult.breakIndex = letterNr;
+            ceResult.prevState = runStates[letterNr];
+            ceResult.currState = letterNr < wordCE.length() ? runStates[letterNr + 1] : runStates[letterNr];
+            return ceResult;
+        }
+        
+        private CeAnalysisResult findBreakIndexBinary(Word wordCE) {
             CeAnalysisResult ceResult = new CeAnalysisResult();
-            // get the initial state from automaton
             int letterNr = 0, currState = -1, prevState = hypothesis.getInitialState();
-            
-            if(! options.binarySearch) {
-                for (letterNr = 0; letterNr < wordCE.length(); letterNr++) {
-                    currState = hypothesis.getSuccessor(prevState, wordCE.getLetter(letterNr));
-                    Word prefix = getStateLabel(currState);
-                    Word suffix = wordCE.getSuffix(letterNr + 1);
-                    HashableValue memMq = processMembershipQuery(prefix, suffix);
-                    if (! result.valueEqual(memMq)) {
-                        ceResult.prevValue = result;
-                        ceResult.currValue = memMq;
-                        break;
-                    }
-                    prevState = currState;
+            int low = 0, high = wordCE.length() - 1;
+            while(low <= high) {
+                int mid = (low + high) / 2;
+                assert mid < wordCE.length();
+                HashableValue fstMq = getRunValue(wordCE, mid);
+                HashableValue sndMq = getRunValue(wordCE, mid + 1);
+                
+                if (! fstMq.valueEqual(sndMq)) {
+                    prevState = runStates[mid];
+                    letterNr = mid;
+                    currState = runStates[mid + 1];
+                    ceResult.prevValue = fstMq;
+                    ceResult.currValue = sndMq;
+                    break;
                 }
-            }else {
-                // binary search
-                int low = 0, high = wordCE.length() - 1;
-                while(low <= high) {
-                    int mid = (low + high) / 2;
-                    assert mid < wordCE.length();
-                    int fst = hypothesis.getSuccessor(wordCE.getPrefix(mid));
-                    int snd = hypothesis.getSuccessor(fst, wordCE.getLetter(mid));
-                    Word fstLabel = getStateLabel(fst);
-                    Word sndLabel = getStateLabel(snd);
-                                        
-                    HashableValue fstMq = processMembershipQuery(fstLabel, wordCE.getSuffix(mid));
-                    HashableValue sndMq = processMembershipQuery(sndLabel, wordCE.getSuffix(mid + 1));
-                    
-                    if (! fstMq.valueEqual(sndMq)) {
-                        prevState = fst;
-                        letterNr = mid;
-                        currState = snd;
-                        ceResult.prevValue = fstMq;
-                        ceResult.currValue = sndMq;
-                        break;
-                    }
 
-                    if (fstMq.valueEqual(result)) {
-                        low = mid + 1;
-                    } else {
-                        high = mid;
-                    }
+                if (fstMq.valueEqual(result)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
             }
-            
             ceResult.breakIndex = letterNr;
             ceResult.prevState = prevState;
             ceResult.currState = currState;
             return ceResult;
         }
+        
+        // probe the positions 1, 2, 4, ... until the answer changes
+        private CeAnalysisResult findBreakIndexExponential(Word wordCE) {
+            int low = 0, high = Math.min(1, wordCE.length());
+            while(high < wordCE.length() && getRunValue(wordCE, high).valueEqual(result)) {
+                low = high;
+                high = Math.min(2 * high, wordCE.length());
+            }
+            return findBreakIndexBetween(wordCE, low, high);
+        }
+        
+        // probe the ends of the blocks of length n/log(n) until the answer changes
+        private CeAnalysisResult findBreakIndexPartition(Word wordCE) {
+            final int length = wordCE.length();
+            final int block = Math.max(1, length / Math.max(1, 31 - Integer.numberOfLeadingZeros(length)));
+            int low = 0, high = Math.min(block, length);
+            while(high < length && getRunValue(wordCE, high).valueEqual(result)) {
+                low = high;
+                high = Math.min(high + block, length);
+            }
+            return findBreakIndexBetween(wordCE, low, high);
+        }
+        
+        // the answer at low is the same as the one of the counterexample while the
+        // answer at high is not, the answer at the end differs for a counterexample
+        private CeAnalysisResult findBreakIndexBetween(Word wordCE, int low, int high) {
+            while(high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if(getRunValue(wordCE, mid).valueEqual(result)) {
+                    low = mid;
+                }else {
+                    high = mid;
+                }
+            }
+            CeAnalysisResult ceResult = new CeAnalysisResult();
+            ceResult.breakIndex = low;
+            ceResult.prevState = runStates[low];
+            ceResult.currState = runStates[high];
+            ceResult.prevValue = low == 0 ? result : getRunValue(wordCE, low);
+            ceResult.currValue = getRunValue(wordCE, high);
+            return ceResult;
+        }
     }
     // only valid for column based algorithms
     protected static class CeAnalysisResult {
@@ -17,7 +17,9 @@
 package roll.learner.dfa.tree;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import gnu.trove.iterator.TIntObjectIterator;
 import roll.automata.DFA;
@@ -31,6 +33,7 @@ import roll.query.QuerySimple;
 import roll.table.ExprValue;
 import roll.table.HashableValue;
 import roll.tree.Node;
+import roll.util.IntIterator;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
 import roll.words.Alphabet;
@@ -46,12 +49,15 @@ public abstract class LearnerDFATree extends LearnerDFA{
 	protected TreeImpl tree;
 	// updates for tree
     protected List<ValueNode> states;
-    
+    // membership answers of sifted words, indexed by the experiment of the node
+    // they were sifted through, the answers of the teacher are kept unprocessed
+    protected final Map<ExprValue, Map<Word, HashableValue>> siftAnswers;
     
 	public LearnerDFATree(Options options, Alphabet alphabet,
 			MembershipOracle<HashableValue> membershipOracle) {
 		super(options, alphabet, membershipOracle);
 		states = new ArrayList<>();
+		siftAnswers = new HashMap<>();
 	}
 	
 	protected ValueNode createNode(Node<ValueNode> node) {
@@ -69,6 +75,7 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		ExprValue label = getExprValueWord(wordEmpty);
 		Node<ValueNode> root = getValueNode(null, null, label);  
 		states.clear();
+		clearSiftAnswers();
 		// init empty state
 		ValueNode stateLamda = createNode(root);
 		
@@ -81,6 +88,11 @@ public abstract class LearnerDFATree extends LearnerDFA{
 	}
 	
 
+	// answers are dropped when the learner is restarted
+	protected void clearSiftAnswers() {
+		siftAnswers.clear();
+	}
+
 	protected Node<ValueNode> nodeToSplit;
 	
 	protected void constructHypothesis() {
@@ -98,8 +110,9 @@ public abstract class LearnerDFATree extends LearnerDFA{
 			for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
 				ISet preds = state.predecessors.get(letter);
 				if(preds == null) continue;
-				for(final int predNr : preds) {
-					StateNFA s = dfa.getState(predNr);
+				IntIterator iter = preds.intIterator();
+				while(iter.hasNext()) {
+					StateNFA s = dfa.getState(iter.nextInt());
 					s.addTransition(letter, state.id);
 				}
 			}
@@ -122,15 +135,29 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		
 		TIntObjectIterator<ISet> iterator = nodeToSplit.getValue().predecessors.iterator();
 		Node<ValueNode> parent = nodeToSplit.getParent();
+		// sift all predecessor words together
+		List<Word> words = new ArrayList<>();
+		while(iterator.hasNext()) {
+			iterator.advance();
+			int letter = iterator.key();
+			IntIterator stateIter = iterator.value().intIterator();
+			while(stateIter.hasNext()) {
+				words.add(states.get(stateIter.nextInt()).label.append(letter));
+			}
+		}
+		List<Node<ValueNode>> nodes = sift(words, parent);
+		int wordNr = 0;
+		iterator = nodeToSplit.getValue().predecessors.iterator();
 		ISet letterToDeleted = UtilISet.newISet();
 		while(iterator.hasNext()) {
 			iterator.advance();
 			int letter = iterator.key();
 			ISet statePrevs = iterator.value();
 			ISet stateLeft = statePrevs.clone();
-			for(final int stateNr : statePrevs) {
-				ValueNode statePrev = states.get(stateNr);
-				Node<ValueNode> nodeOther = sift(statePrev.label.append(letter), parent);
+			IntIterator stateIter = statePrevs.intIterator();
+			while(stateIter.hasNext()) {
+				int stateNr = stateIter.nextInt();
+				Node<ValueNode> nodeOther = nodes.get(wordNr ++);
 				if (nodeOther != nodeToSplit) {
 					updateTransition(stateNr, letter, nodeOther.getValue().id);
 					stateLeft.clear(stateNr);
@@ -181,9 +208,79 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		return nodeCurr;
 	}
 	
-	protected HashableValue processMembershipQuery(Word word, ExprValue exprValue) {
+	// sift all words from nodeStart, the queries of the same depth are answered in one batch
+	// and only the pairs (word, experiment) which have not been sifted before are asked
+	protected List<Node<ValueNode>> sift(List<Word> words, Node<ValueNode> nodeStart) {
+		List<Node<ValueNode>> nodes = new ArrayList<>(words.size());
+		for(int wordNr = 0; wordNr < words.size(); wordNr ++) {
+			nodes.add(nodeStart);
+		}
+		int[] pending = new int[words.size()];
+		int[] queryNrs = new int[words.size()];
+		List<Query<HashableValue>> queries = new ArrayList<>();
+		Map<ExprValue, Map<Word, Integer>> queryIndices = new HashMap<>();
+		while(true) {
+			queries.clear();
+			queryIndices.clear();
+			int numPending = 0;
+			for(int wordNr = 0; wordNr < words.size(); wordNr ++) {
+				Word word = words.get(wordNr);
+				Node<ValueNode> node = nodes.get(wordNr);
+				// follow the answers we already know
+				HashableValue answer;
+				while(! node.isLeaf()
+				   && (answer = getSiftAnswer(word, node.getLabel())) != null) {
+					node = node.getChild(processMembershipAnswer(word, node.getLabel(), answer));
+				}
+				nodes.set(wordNr, node);
+				if(node.isLeaf()) continue;
+				// the same query may be needed by several words
+				Map<Word, Integer> indices = queryIndices.computeIfAbsent(node.getLabel(), k -> new HashMap<>());
+				Integer queryNr = indices.get(word);
+				if(queryNr == null) {
+					queryNr = queries.size();
+					indices.put(word, queryNr);
+					queries.add(makeMembershipQuery(word, node.getLabel()));
+				}
+				pending[numPending] = wordNr;
+				queryNrs[numPending] = queryNr;
+				numPending ++;
+			}
+			if(numPending == 0) break;
+			List<HashableValue> results = membershipOracle.answerMembershipQueries(queries);
+			for(int i = 0; i < numPending; i ++) {
+				int wordNr = pending[i];
+				Word word = words.get(wordNr);
+				Node<ValueNode> node = nodes.get(wordNr);
+				HashableValue answer = results.get(queryNrs[i]);
+				putSiftAnswer(word, node.getLabel(), answer);
+				nodes.set(wordNr, node.getChild(processMembershipAnswer(word, node.getLabel(), answer)));
+			}
+		}
+		return nodes;
+	}
+	
+	protected HashableValue getSiftAnswer(Word word, ExprValue exprValue) {
+		Map<Word, HashableValue> answers = siftAnswers.get(exprValue);
+		return answers == null ? null : answers.get(word);
+	}
+	
+	protected void putSiftAnswer(Word word, ExprValue exprValue, HashableValue answer) {
+		siftAnswers.computeIfAbsent(exprValue, k -> new HashMap<>()).put(word, answer);
+	}
+	
+	protected Query<HashableValue> makeMembershipQuery(Word word, ExprValue exprValue) {
 		Word suffix = exprValue.get();
-		return membershipOracle.answerMembershipQuery(new QuerySimple<>(word, suffix));
+		return new QuerySimple<>(word, suffix);
+	}
+	
+	protected HashableValue processMembershipQuery(Word word, ExprValue exprValue) {
+		HashableValue result = getSiftAnswer(word, exprValue);
+		if(result == null) {
+			result = membershipOracle.answerMembershipQuery(makeMembershipQuery(word, exprValue));
+			putSiftAnswer(word, exprValue, result);
+		}
+		return processMembershipAnswer(word, exprValue, result);
 	}
 
 	// word will never be empty word
@@ -260,10 +357,13 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		ValueNode state = states.get(stateNr);
 		
 		Word label = state.label;
+		List<Word> wordSuccs = new ArrayList<>(to - from + 1);
+		for(int letter = from; letter <= to; letter ++) {
+			wordSuccs.add(label.append(letter));
+		}
+		List<Node<ValueNode>> nodeSuccs = sift(wordSuccs, tree.getRoot());
 		for(int letter = from; letter <= to; letter ++) {
-			Word wordSucc = label.append(letter);
-			Node<ValueNode> nodeSucc = sift(wordSucc);
-			updateTransition(stateNr, letter, nodeSucc.getValue().id);
+			updateTransition(stateNr, letter, nodeSuccs.get(letter - from).getValue().id);
 		}
 	}
 	
@@ -16,6 +16,9 @@
 
 package roll.learner.dfa.tree;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.automata.DFA;
 import roll.automata.StateNFA;
 import roll.learner.LearnerType;
@@ -54,10 +57,18 @@ public class LearnerDFATreeKV extends LearnerDFATree {
             dfa.createState();
         }
         
+        // sift all successor words together
+        List<Word> succWords = new ArrayList<>();
+        for(ValueNode stateNode : states) {
+            for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
+                succWords.add(stateNode.label.append(letter));
+            }
+        }
+        List<Node<ValueNode>> succNodes = sift(succWords, tree.getRoot());
+        int wordNr = 0;
         for(ValueNode stateNode : states) {
             for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
-                Word succWord = stateNode.label.append(letter);
-                Node<ValueNode> succNode = sift(succWord);
+                Node<ValueNode> succNode = succNodes.get(wordNr ++);
                 StateNFA state = dfa.getState(stateNode.id);
                 state.addTransition(letter, succNode.getValue().id);
             }
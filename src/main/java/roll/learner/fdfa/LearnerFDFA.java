@@ -18,6 +18,10 @@ package roll.learner.fdfa;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import roll.automata.DFA;
 import roll.automata.FDFA;
@@ -45,12 +49,21 @@ import roll.words.Word;
 
 public abstract class LearnerFDFA extends LearnerBase<FDFA> {
 
+    // progress learners of all FDFA learners share one pool per number of threads
+    private static final Map<Integer, ForkJoinPool> pools = new ConcurrentHashMap<>();
+    
     protected LearnerLeading learnerLeading;
     protected List<LearnerProgress> learnerProgress;
+    // answers shared by the leading and all progress learners
+    protected final QueryStoreFDFA queryStore;
+    protected final MembershipOracle<HashableValue> leadingOracle;
+    
     public LearnerFDFA(Options options, Alphabet alphabet
             , MembershipOracle<HashableValue> membershipOracle) {
         super(options, alphabet, membershipOracle);
         this.learnerProgress = new ArrayList<>();
+        this.queryStore = new QueryStoreFDFA(options, membershipOracle);
+        this.leadingOracle = queryStore.getMembershipOracle(true);
     }
     
     @Override
@@ -64,13 +77,9 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
         
         DFA dfa = learnerLeading.getHypothesis();
         for(int state = 0; state < dfa.getStateSize(); state ++ ) {
-            LearnerProgress learner = getLearnerProgress(state);
-            learnerProgress.add(learner);
-            timer.start();
-            learner.startLearning();
-            timer.stop();
-            options.stats.timeOfLearnerProgress += timer.getTimeElapsed();
+            learnerProgress.add(getLearnerProgress(state));
         }
+        startLearnerProgress(learnerProgress);
         constructHypothesis();
     }
     
@@ -85,6 +94,34 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
         hypothesis = new FDFA(leadDFA, proDFAs);
     }
 
+    // progress learners only share the membership oracle, so they run concurrently
+    // when the teacher answers queries from several threads, the time of every
+    // learner is added to the statistics
+    protected void startLearnerProgress(List<LearnerProgress> learners) {
+        if(options.membershipThreads <= 1 || learners.size() <= 1) {
+            for(LearnerProgress learner : learners) {
+                options.stats.timeOfLearnerProgress += startLearnerProgress(learner);
+            }
+            return;
+        }
+        ForkJoinPool pool = pools.computeIfAbsent(options.membershipThreads, ForkJoinPool::new);
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(learners.size());
+        for(LearnerProgress learner : learners) {
+            tasks.add(pool.submit(() -> startLearnerProgress(learner)));
+        }
+        for(ForkJoinTask<Long> task : tasks) {
+            options.stats.timeOfLearnerProgress += task.join();
+        }
+    }
+    
+    private long startLearnerProgress(LearnerProgress learner) {
+        Timer timer = new Timer();
+        timer.start();
+        learner.startLearning();
+        timer.stop();
+        return timer.getTimeElapsed();
+    }
+
     @Override
     public LearnerType getLearnerType() {
         return LearnerType.FDFA;
@@ -108,13 +145,13 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
         int s = leadDFA.getSuccessor(expr.getLeft());
         Word label = learnerLeading.getStateLabel(s);
         Query<HashableValue> queryLabel = new QuerySimple<HashableValue>(label, expr.getRight());
-        HashableValue resultLabel = membershipOracle.answerMembershipQuery(queryLabel);
+        HashableValue resultLabel = leadingOracle.answerMembershipQuery(queryLabel);
         Query<HashableValue> queryLeading = new QuerySimple<HashableValue>(expr.getLeft(), expr.getRight());
         options.log.verbose("Starting counterexample analysis in the learner ("
                 +((Word)expr.getLeft()).length() + "," + ((Word)expr.getRight()).length() + ") ...");
         HashableValue resultCE = query.getQueryAnswer();
         if(resultCE == null) {
-            resultCE = membershipOracle.answerMembershipQuery(queryLeading);
+            resultCE = leadingOracle.answerMembershipQuery(queryLeading);
         }
         queryLeading.answerQuery(resultCE);
         if(! resultLabel.equals(resultCE)) { // refine leading automaton
@@ -124,22 +161,24 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
             timer.stop();
             options.stats.timeOfLearnerLeading += timer.getTimeElapsed();
             
-            timer.start();
+            List<LearnerProgress> learners = new ArrayList<>();
             if(! isPeriodic()) {
                 // Syntactic and Recurrent FDFA should restart progress learning
+                // unless no entry of the progress learner has changed
                 for(LearnerProgress learner : learnerProgress) {
-                    learner.startLearning();
+                    if(! learner.isLeadingConsistent()) {
+                        learners.add(learner);
+                    }
                 }
             }
             DFA leadDFAPrime = learnerLeading.getHypothesis();
             // new states, not just one (for table-based leading automaton)
             for(int state = leadDFA.getStateSize(); state < leadDFAPrime.getStateSize(); state ++) {
                 LearnerProgress learner = getLearnerProgress(state);
-                learner.startLearning();
+                learners.add(learner);
                 learnerProgress.add(learner);
             }
-            timer.stop();
-            options.stats.timeOfLearnerProgress += timer.getTimeElapsed();
+            startLearnerProgress(learners);
         }else { // refine progress automaton
             Timer timer = new Timer();
             timer.start();
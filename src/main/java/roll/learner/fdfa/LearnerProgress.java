@@ -54,4 +54,10 @@ public interface LearnerProgress extends LearnerGeneral {
     }
     
     int getLeadingState();
+    
+    // whether the learner still holds after the leading automaton has been
+    // refined, otherwise it has to be restarted
+    default boolean isLeadingConsistent() {
+        return false;
+    }
 }
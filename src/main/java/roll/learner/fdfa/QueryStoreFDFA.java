@@ -0,0 +1,146 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.learner.fdfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import roll.main.Options;
+import roll.oracle.MembershipOracle;
+import roll.query.Query;
+import roll.table.HashableValue;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Answers of the membership queries made by the leading learner and all progress
+ * learners of one FDFA learner. Every learner asks its queries through its own
+ * oracle obtained from getMembershipOracle, and the answer of u.v^w is stored under
+ * the normal form of (u, v), so the same omega-word is passed to the teacher once
+ * no matter which learner asks it or how it is factorized.
+ * */
+
+public class QueryStoreFDFA {
+
+    private final Options options;
+    private final MembershipOracle<HashableValue> membershipOracle;
+    // progress learners may run concurrently
+    private final Map<Pair<Word, Word>, HashableValue> answers;
+
+    public QueryStoreFDFA(Options options, MembershipOracle<HashableValue> membershipOracle) {
+        this.options = options;
+        this.membershipOracle = membershipOracle;
+        this.answers = new ConcurrentHashMap<>();
+    }
+
+    // the oracle for one learner, the hits are counted for the leading
+    // or progress learners in the statistics
+    public MembershipOracleStore getMembershipOracle(boolean leading) {
+        return new MembershipOracleStore(leading ? options.stats.numOfStoreHitInLeading
+                                                 : options.stats.numOfStoreHitInProgress);
+    }
+
+    public int size() {
+        return answers.size();
+    }
+
+    private Pair<Word, Word> getKey(Query<HashableValue> query) {
+        Word prefix = query.getPrefix();
+        Word suffix = query.getSuffix();
+        // empty period is not an omega-word, keep it as it is
+        if(suffix.isEmpty()) {
+            return new Pair<>(prefix, suffix);
+        }
+        return Alphabet.getNormalForm(prefix, suffix);
+    }
+
+    public class MembershipOracleStore implements MembershipOracle<HashableValue> {
+
+        private final LongAdder statsHits;
+
+        private MembershipOracleStore(LongAdder statsHits) {
+            this.statsHits = statsHits;
+        }
+
+        private void hit() {
+            statsHits.increment();
+        }
+
+        @Override
+        public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+            Pair<Word, Word> key = getKey(query);
+            HashableValue answer = answers.get(key);
+            if(answer != null) {
+                hit();
+                return answer;
+            }
+            answer = membershipOracle.answerMembershipQuery(query);
+            answers.put(key, answer);
+            return answer;
+        }
+
+        @Override
+        public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+            HashableValue[] result = new HashableValue[queries.size()];
+            // the missed queries are asked in one batch, each word only once
+            List<Query<HashableValue>> missQueries = new ArrayList<>();
+            List<Pair<Word, Word>> missKeys = new ArrayList<>();
+            Map<Pair<Word, Word>, Integer> missIndices = new HashMap<>();
+            int[] missNrs = new int[queries.size()];
+            for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+                Pair<Word, Word> key = getKey(queries.get(queryNr));
+                result[queryNr] = answers.get(key);
+                if(result[queryNr] != null) {
+                    hit();
+                    continue;
+                }
+                Integer missNr = missIndices.get(key);
+                if(missNr == null) {
+                    missNr = missQueries.size();
+                    missIndices.put(key, missNr);
+                    missQueries.add(queries.get(queryNr));
+                    missKeys.add(key);
+                }else {
+                    hit();
+                }
+                missNrs[queryNr] = missNr;
+            }
+            if(missQueries.isEmpty()) {
+                return Arrays.asList(result);
+            }
+            List<HashableValue> missAnswers = membershipOracle.answerMembershipQueries(missQueries);
+            for(int missNr = 0; missNr < missQueries.size(); missNr ++) {
+                answers.put(missKeys.get(missNr), missAnswers.get(missNr));
+            }
+            for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+                if(result[queryNr] == null) {
+                    result[queryNr] = missAnswers.get(missNrs[queryNr]);
+                }
+            }
+            return Arrays.asList(result);
+        }
+    }
+
+}
@@ -42,13 +42,13 @@ public class LearnerFDFATablePeriodic extends LearnerFDFA {
 
     @Override
     protected LearnerLeading getLearnerLeading() {
-        return new LearnerLeadingTable(options, alphabet, membershipOracle);
+        return new LearnerLeadingTable(options, alphabet, leadingOracle);
     }
 
     @Override
     protected LearnerProgress getLearnerProgress(int state) {
         assert learnerLeading != null;
-        return new LearnerProgressTablePeriodic(options, alphabet, membershipOracle, learnerLeading, state);
+        return new LearnerProgressTablePeriodic(options, alphabet, queryStore.getMembershipOracle(false), learnerLeading, state);
     }
 
 }
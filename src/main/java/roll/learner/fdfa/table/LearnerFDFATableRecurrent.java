@@ -38,13 +38,13 @@ public class LearnerFDFATableRecurrent extends LearnerFDFA {
 
     @Override
     protected LearnerLeading getLearnerLeading() {
-        return new LearnerLeadingTable(options, alphabet, membershipOracle);
+        return new LearnerLeadingTable(options, alphabet, leadingOracle);
     }
 
     @Override
     protected LearnerProgress getLearnerProgress(int state) {
         assert learnerLeading != null;
-        return new LearnerProgressTableRecurrent(options, alphabet, membershipOracle, learnerLeading, state);
+        return new LearnerProgressTableRecurrent(options, alphabet, queryStore.getMembershipOracle(false), learnerLeading, state);
     }
 
 }
@@ -36,13 +36,13 @@ public class LearnerFDFATableSyntactic extends LearnerFDFA {
 
     @Override
     protected LearnerLeading getLearnerLeading() {
-        return new LearnerLeadingTable(options, alphabet, membershipOracle);
+        return new LearnerLeadingTable(options, alphabet, leadingOracle);
     }
 
     @Override
     protected LearnerProgress getLearnerProgress(int state) {
         assert learnerLeading != null;
-        return new LearnerProgressTableSyntactic(options, alphabet, membershipOracle, learnerLeading, state);
+        return new LearnerProgressTableSyntactic(options, alphabet, queryStore.getMembershipOracle(false), learnerLeading, state);
     }
 
 }
@@ -47,16 +47,13 @@ public class LearnerLeadingTable extends LearnerOmegaTable implements LearnerLea
     }
     
     @Override
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
         assert valueExpr instanceof ExprValueWordPair;
         Word prefix = row.getWord();        //u
         Word left = valueExpr.getLeft();    //x
         prefix = prefix.concat(left);       //ux
         Word suffix = valueExpr.getRight();  // ux(y)^w
-        HashableValue result = processMembershipQuery(row, prefix, suffix, offset);
-        Query<HashableValue> query = getQuerySimple(row, prefix, suffix, offset);
-        query.answerQuery(result);
-        return query;
+        return getQuerySimple(row, prefix, suffix, offset);
     }
 
     @Override
@@ -16,6 +16,10 @@
 
 package roll.learner.fdfa.table;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import roll.learner.fdfa.LearnerLeading;
 import roll.learner.fdfa.LearnerProgress;
 import roll.main.Options;
@@ -37,6 +41,10 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
     protected final LearnerLeading learnerLeading;
     protected int state;
     protected final Word label;
+    // answers of the queries (label, v) indexed by v, they are kept when the
+    // learner is restarted since they do not depend on the leading automaton
+    protected final Map<Word, HashableValue> answers;
+    
 	public LearnerProgressTable(Options options, Alphabet alphabet
 	        , MembershipOracle<HashableValue> membershipOracle
 	        , LearnerLeading learnerLeading, int state) {
@@ -44,6 +52,7 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
         this.state = state;
         this.learnerLeading = learnerLeading;
         this.label = learnerLeading.getStateLabel(state);
+        this.answers = new HashMap<>();
     }
 
     @Override
@@ -62,26 +71,61 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
     }
         
     @Override
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
         Word x = row.getWord(); //x
         Word e = valueExpr.get(); //e
         Word suffix = x.concat(e); //(xe)^w
-        HashableValue resultLeft = processMembershipQuery(row, label, suffix, offset);
-        Query<HashableValue> query = getQuerySimple(row, label, suffix, offset);
-        HashableValue result = prepareRowHashableValue(resultLeft.get(), x, e);
-        query.answerQuery(result);
-        return query;
+        return getQuerySimple(row, label, suffix, offset);
+    }
+    
+    @Override
+    protected HashableValue getKnownMembershipAnswer(Query<HashableValue> query) {
+        return answers.get(query.getSuffix());
+    }
+    
+    @Override
+    protected HashableValue processMembershipAnswer(Word x, ExprValue valueExpr, HashableValue answer) {
+        Word e = valueExpr.get();
+        answers.put(x.concat(e), answer);
+        return prepareRowHashableValue(answer.get(), x, e);
     }
     
     @Override
     protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
         Word loop = prefix.concat(suffix);
-        Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(query);
+        HashableValue mqResult = answers.get(loop);
+        if(mqResult == null) {
+            Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
+            mqResult = membershipOracle.answerMembershipQuery(query);
+            answers.put(loop, mqResult);
+        }
         HashableValue result = getCeAnalyzerHashableValue(mqResult.get(), prefix, suffix);
         return result;
     }
     
+    // every entry keeps its value under the current leading automaton
+    @Override
+    public boolean isLeadingConsistent() {
+        return isLeadingConsistent(observationTable.getUpperTable())
+            && isLeadingConsistent(observationTable.getLowerTable());
+    }
+    
+    private boolean isLeadingConsistent(List<ObservationRow> rows) {
+        List<ExprValue> columns = observationTable.getColumns();
+        for(ObservationRow row : rows) {
+            Word x = row.getWord();
+            for(int colNr = 0; colNr < columns.size(); colNr ++) {
+                Word e = columns.get(colNr).get();
+                HashableValue answer = answers.get(x.concat(e));
+                if(answer == null
+                || ! prepareRowHashableValue(answer.get(), x, e).equals(row.getValues().get(colNr))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
     protected class CeAnalyzerProgressTable extends CeAnalyzerTable {
 
         public CeAnalyzerProgressTable(ExprValue exprValue, HashableValue result) {
@@ -37,12 +37,12 @@ public class LearnerFDFATreePeriodic extends LearnerFDFA {
 
     @Override
     protected LearnerLeading getLearnerLeading() {
-        return new LearnerLeadingTree(options, alphabet, membershipOracle);
+        return new LearnerLeadingTree(options, alphabet, leadingOracle);
     }
 
     @Override
     protected LearnerProgress getLearnerProgress(int state) {
-        return new LearnerProgressTreePeriodic(options, alphabet, membershipOracle, learnerLeading, state);
+        return new LearnerProgressTreePeriodic(options, alphabet, queryStore.getMembershipOracle(false), learnerLeading, state);
     }
     
     @Override
@@ -37,12 +37,12 @@ public class LearnerFDFATreeSyntactic extends LearnerFDFA {
 
     @Override
     protected LearnerLeading getLearnerLeading() {
-        return new LearnerLeadingTree(options, alphabet, membershipOracle);
+        return new LearnerLeadingTree(options, alphabet, leadingOracle);
     }
 
     @Override
     protected LearnerProgress getLearnerProgress(int state) {
-        return new LearnerProgressTreeSyntactic(options, alphabet, membershipOracle, learnerLeading, state);
+        return new LearnerProgressTreeSyntactic(options, alphabet, queryStore.getMembershipOracle(false), learnerLeading, state);
     }
 
 }
\ No newline at end of file
@@ -17,6 +17,7 @@
 package roll.learner.fdfa.tree;
 
 import roll.learner.fdfa.LearnerLeading;
+import roll.learner.dfa.tree.ValueNode;
 import roll.learner.fdfa.LearnerProgress;
 import roll.main.Options;
 import roll.oracle.MembershipOracle;
@@ -24,6 +25,7 @@ import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.ExprValue;
 import roll.table.HashableValue;
+import roll.tree.Node;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -61,24 +63,66 @@ abstract class LearnerProgressTree extends LearnerOmegaTree implements LearnerPr
         return state;
     }
     
+    // the answer of (u, v) does not depend on the leading automaton, so the
+    // answers stay valid when the learner is restarted
+    @Override
+    protected void clearSiftAnswers() {
+    }
+    
     // this is for counterexample analysis
     @Override
     protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
-        Word loop = prefix.concat(suffix);
-        Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(query);
+        ExprValue exprValue = getExprValueWord(suffix);
+        HashableValue mqResult = getSiftAnswer(prefix, exprValue);
+        if(mqResult == null) {
+            Word loop = prefix.concat(suffix);
+            Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
+            mqResult = membershipOracle.answerMembershipQuery(query);
+            putSiftAnswer(prefix, exprValue, mqResult);
+        }
         HashableValue result = getCeAnalyzerHashableValue(mqResult.get(), prefix, suffix);
         return result;
     }
     
     // this is for tree construction
     @Override
-    protected HashableValue processMembershipQuery(Word prefix, ExprValue exprValue) {
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, ExprValue exprValue) {
         Word suffix = exprValue.get();
         Word loop = prefix.concat(suffix);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(new QuerySimple<>(label, loop));
-        HashableValue result = prepareRowHashableValue(mqResult.get(), prefix, suffix);
-        return result;
+        return new QuerySimple<>(label, loop);
+    }
+    
+    @Override
+    protected HashableValue processMembershipAnswer(Word prefix, ExprValue exprValue, HashableValue mqResult) {
+        return prepareRowHashableValue(mqResult.get(), prefix, exprValue.get());
+    }
+    
+    // every state and every transition is still found by sifting
+    // under the current leading automaton
+    @Override
+    public boolean isLeadingConsistent() {
+        for(ValueNode state : states) {
+            if(siftExisting(state.label) != state.node) {
+                return false;
+            }
+            for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
+                Node<ValueNode> succ = siftExisting(state.label.append(letter));
+                if(succ == null || succ.getValue().id != hypothesis.getSuccessor(state.id, letter)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    // null if the word leaves the tree
+    private Node<ValueNode> siftExisting(Word word) {
+        Node<ValueNode> nodeCurr = tree.getRoot();
+        while(nodeCurr != null && ! nodeCurr.isLeaf()) {
+            HashableValue result = processMembershipQuery(word, nodeCurr.getLabel());
+            nodeCurr = nodeCurr.getChild(result);
+        }
+        return nodeCurr;
     }
     
     protected class CeAnalyzerProgressTree extends CeAnalyzerTree {
@@ -0,0 +1,135 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.learner.nba;
+
+import roll.automata.NBA;
+import roll.automata.operations.NBAOperations;
+import roll.oracle.MembershipOracle;
+import roll.query.Query;
+import roll.query.QuerySimple;
+import roll.table.HashableValue;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * Shortens a counterexample u.v^w for the hypothesis before it is analyzed.
+ * The period v is reduced to its primitive root and the stem is rolled into
+ * the period, which does not change the word, then we greedily drop infixes
+ * of v and u and keep every candidate which is still a counterexample, i.e.,
+ * the hypothesis and the membership oracle do not agree on it.
+ * */
+
+public class CeMinimizer {
+
+    private final NBA hypothesis;
+    private final MembershipOracle<HashableValue> membershipOracle;
+    // answer of the last accepted candidate
+    private HashableValue answer;
+
+    public CeMinimizer(NBA hypothesis, MembershipOracle<HashableValue> membershipOracle) {
+        this.hypothesis = hypothesis;
+        this.membershipOracle = membershipOracle;
+    }
+
+    public Query<HashableValue> minimize(Query<HashableValue> query) {
+        Word stem = query.getPrefix();
+        Word loop = query.getSuffix();
+        answer = query.getQueryAnswer();
+        if(answer == null) {
+            answer = membershipOracle.answerMembershipQuery(query);
+        }
+        if(loop.isEmpty()) {
+            return query;
+        }
+        loop = getPrimitiveRoot(loop);
+        Word[] lasso = rollStem(stem, loop);
+        stem = lasso[0];
+        loop = lasso[1];
+
+        loop = dropInfixes(stem, loop, false);
+        stem = dropInfixes(stem, loop, true);
+
+        loop = getPrimitiveRoot(loop);
+        lasso = rollStem(stem, loop);
+        Query<HashableValue> ceQuery = new QuerySimple<>(lasso[0], lasso[1]);
+        ceQuery.answerQuery(answer);
+        return ceQuery;
+    }
+
+    // the shortest word r such that loop = r^k
+    public static Word getPrimitiveRoot(Word loop) {
+        final int length = loop.length();
+        for(int period = 1; period < length; period ++) {
+            if(length % period != 0) continue;
+            boolean isRoot = true;
+            for(int letterNr = period; letterNr < length && isRoot; letterNr ++) {
+                isRoot = loop.getLetter(letterNr) == loop.getLetter(letterNr - period);
+            }
+            if(isRoot) {
+                return loop.getPrefix(period);
+            }
+        }
+        return loop;
+    }
+
+    // u a (v a)^w = u (a v)^w
+    public static Word[] rollStem(Word stem, Word loop) {
+        int stemLength = stem.length();
+        int shift = 0;
+        while(stemLength > 0
+           && stem.getLetter(stemLength - 1) == loop.getLetter(loop.length() - 1 - (shift % loop.length()))) {
+            stemLength --;
+            shift ++;
+        }
+        shift %= loop.length();
+        if(shift > 0) {
+            int split = loop.length() - shift;
+            loop = loop.getSuffix(split).concat(loop.getPrefix(split));
+        }
+        return new Word[] { stem.getPrefix(stemLength), loop };
+    }
+
+    // remove infixes of length n, n/2, ..., 1 from the stem or the loop
+    private Word dropInfixes(Word stem, Word loop, boolean fromStem) {
+        Word word = fromStem ? stem : loop;
+        for(int size = word.length(); size >= 1; size /= 2) {
+            int offset = 0;
+            while(offset + size <= word.length()) {
+                Word candidate = word.getPrefix(offset).concat(word.getSuffix(offset + size));
+                boolean found = fromStem ? isCounterexample(candidate, loop)
+                                         : ! candidate.isEmpty() && isCounterexample(stem, candidate);
+                if(found) {
+                    word = candidate;
+                }else {
+                    offset += size;
+                }
+            }
+        }
+        return word;
+    }
+
+    private boolean isCounterexample(Word stem, Word loop) {
+        HashableValue result = membershipOracle.answerMembershipQuery(new QuerySimple<>(stem, loop));
+        if(result.isAccepting() == NBAOperations.accepts(hypothesis, stem, loop)) {
+            return false;
+        }
+        answer = result;
+        return true;
+    }
+
+}
@@ -27,6 +27,7 @@ import roll.learner.LearnerDFA;
 import roll.learner.LearnerType;
 import roll.learner.dfa.table.LearnerDFATableColumn;
 import roll.learner.dfa.tree.LearnerDFATreeColumn;
+import roll.learner.nba.CeMinimizer;
 import roll.main.Options;
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
@@ -105,6 +106,10 @@ public class LearnerNBALDollar extends LearnerBase<NBA>{
 
     @Override
     public void refineHypothesis(Query<HashableValue> query) {
+        if(options.minimizeCounterexample) {
+            query = new CeMinimizer(hypothesis, membershipOracle).minimize(query);
+            options.log.verbose("Minimized counterexample: " + query.toString());
+        }
         Word prefix = query.getPrefix();
         Word suffix = query.getSuffix();
         options.log.println("Analyzing counterexample for DFA learner...");
@@ -16,6 +16,9 @@
 
 package roll.learner.nba.ldollar;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
 import roll.query.QuerySimple;
@@ -39,11 +42,48 @@ class MembershipOracleNBALDollar implements MembershipOracle<HashableValue> {
 
     @Override
     public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+        Query<HashableValue> omegaQuery = getOmegaQuery(query);
+        if(omegaQuery == null) {
+            return new HashableValueBoolean(false);
+        }
+        return membershipOracle.answerMembershipQuery(omegaQuery);
+    }
+    
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        // only words of the form u$v are passed to the oracle, in one batch
+        List<Query<HashableValue>> omegaQueries = new ArrayList<>(queries.size());
+        boolean[] isOmega = new boolean[queries.size()];
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            Query<HashableValue> omegaQuery = getOmegaQuery(queries.get(queryNr));
+            if(omegaQuery != null) {
+                omegaQueries.add(omegaQuery);
+                isOmega[queryNr] = true;
+            }
+        }
+        List<HashableValue> omegaAnswers = null;
+        if(! omegaQueries.isEmpty()) {
+            omegaAnswers = membershipOracle.answerMembershipQueries(omegaQueries);
+        }
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        int omegaNr = 0;
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            if(isOmega[queryNr]) {
+                answers.add(omegaAnswers.get(omegaNr ++));
+            }else {
+                answers.add(new HashableValueBoolean(false));
+            }
+        }
+        return answers;
+    }
+    
+    // the omega-word u(v)^w for the finite word u$v, null if not of that form
+    private Query<HashableValue> getOmegaQuery(Query<HashableValue> query) {
         // input word is finite word
         Word word = query.getQueriedWord();
         // last word is '$'
         if (word.getLastLetter() == dollarLetter) {
-            return new HashableValueBoolean(false);
+            return null;
         }
         // counts the number of $.
         int counter = 0;
@@ -56,18 +96,15 @@ class MembershipOracleNBALDollar implements MembershipOracle<HashableValue> {
                 suffix = word.getSuffix(letterNr + 1);
             }
             if (counter > 1) {
-                return new HashableValueBoolean(false);
+                return null;
             }
         }
         if (counter == 0) {
-            return new HashableValueBoolean(false);
+            return null;
         }
        
         // '$' only occurs once new QuerySimple
-        HashableValue answer = membershipOracle.answerMembershipQuery(new QuerySimple<>(prefix, suffix));
-        return answer;
+        return new QuerySimple<>(prefix, suffix);
     }
-    
-    
 
 }
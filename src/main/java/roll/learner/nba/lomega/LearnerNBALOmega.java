@@ -18,9 +18,11 @@ package roll.learner.nba.lomega;
 
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.learner.LearnerBase;
 import roll.learner.LearnerType;
 import roll.learner.fdfa.LearnerFDFA;
+import roll.learner.nba.CeMinimizer;
 import roll.learner.nba.lomega.translator.TranslatorFDFA;
 import roll.main.Options;
 import roll.oracle.MembershipOracle;
@@ -41,10 +43,13 @@ import roll.words.Alphabet;
 public class LearnerNBALOmega extends LearnerBase<NBA>{
 
     private final LearnerFDFA fdfaLearner;
+    private final FDFA2NBA nbaBuilder;
+    private FDFA2NBA ldbaBuilder; // created on the first request for an LDBA
     
     public LearnerNBALOmega(Options options, Alphabet alphabet, MembershipOracle<HashableValue> membershipOracle) {
         super(options, alphabet, membershipOracle);
         fdfaLearner = UtilLOmega.getLearnerFDFA(options, alphabet, membershipOracle);
+        nbaBuilder = UtilLOmega.getNBABuilder(options, false);
     }
 
     @Override
@@ -61,7 +66,7 @@ public class LearnerNBALOmega extends LearnerBase<NBA>{
     protected void constructHypothesis() {
         // construct BA from FDFA
         FDFA fdfa = fdfaLearner.getHypothesis();
-        hypothesis = UtilLOmega.constructNBA(options, fdfa);
+        hypothesis = nbaBuilder.buildNBA(fdfa);
     }
     
     @Override
@@ -72,6 +77,10 @@ public class LearnerNBALOmega extends LearnerBase<NBA>{
         Timer timer = new Timer();
         timer.start();
         TranslatorFDFA translator = UtilLOmega.getTranslator(options, fdfaLearner, membershipOracle);
+        if(options.minimizeCounterexample) {
+            query = new CeMinimizer(hypothesis, membershipOracle).minimize(query);
+            options.log.verbose("Minimized counterexample: " + query.toString());
+        }
         // lazy equivalence check is implemented here
         HashableValue mqResult = query.getQueryAnswer();
         if(mqResult == null) {
@@ -98,6 +107,14 @@ public class LearnerNBALOmega extends LearnerBase<NBA>{
         return fdfaLearner;
     }
     
+    // limit deterministic BA of the current FDFA, the hypotheses stay NBAs
+    public NBA getLDBA() {
+        if(ldbaBuilder == null) {
+            ldbaBuilder = UtilLOmega.getNBABuilder(options, true);
+        }
+        return ldbaBuilder.buildNBA(fdfaLearner.getHypothesis());
+    }
+    
     @Override
     public String toString() {
         return fdfaLearner.toString();
@@ -16,11 +16,9 @@
 
 package roll.learner.nba.lomega;
 
-import dk.brics.automaton.Automaton;
 import roll.automata.FDFA;
 import roll.automata.NBA;
-import roll.automata.operations.FDFAOperations;
-import roll.automata.operations.NBAOperations;
+import roll.automata.operations.FDFA2NBA;
 import roll.learner.fdfa.LearnerFDFA;
 import roll.learner.fdfa.table.LearnerFDFATablePeriodic;
 import roll.learner.fdfa.table.LearnerFDFATableRecurrent;
@@ -77,32 +75,24 @@ public class UtilLOmega {
         return fdfaLearner;
     }
     
-    public static NBA constructNBA(Options options, FDFA fdfa) {
-        Automaton dkAut = null;
-        Alphabet alphabet = fdfa.getAlphabet();
+    // the builder keeps the automata of the unchanged progress DFAs, so
+    // it should be reused for the hypotheses of the same FDFA learner
+    public static FDFA2NBA getNBABuilder(Options options, boolean ldba) {
         if(options.approximation == Options.Approximation.OVER) {
-            dkAut = FDFAOperations.buildOverNBA(fdfa);
+            return new FDFA2NBA(false, ldba);
         }else if(options.approximation == Options.Approximation.UNDER){
-            dkAut = FDFAOperations.buildUnderNBA(fdfa);
+            return new FDFA2NBA(true, ldba);
         }else {
             throw new UnsupportedOperationException("Unknown approximation for fdfa");
         }
-        NBA nba = NBAOperations.fromDkNBA(dkAut, alphabet);
-        return nba;
+    }
+    
+    public static NBA constructNBA(Options options, FDFA fdfa) {
+        return getNBABuilder(options, false).buildNBA(fdfa);
     }
     
     public static NBA constructLDBA(Options options, FDFA fdfa) {
-        Automaton dkAut = null;
-        Alphabet alphabet = fdfa.getAlphabet();
-        if(options.approximation == Options.Approximation.OVER) {
-            dkAut = FDFAOperations.buildOverLDBA(fdfa);
-        }else if(options.approximation == Options.Approximation.UNDER){
-            dkAut = FDFAOperations.buildUnderLDBA(fdfa);
-        }else {
-            throw new UnsupportedOperationException("Unknown approximation for fdfa");
-        }
-        NBA nba = NBAOperations.fromDkNBA(dkAut, alphabet);
-        return nba;
+        return getNBABuilder(options, true).buildNBA(fdfa);
     }
     
     public static TranslatorFDFA getTranslator(Options options
@@ -16,10 +16,10 @@
 
 package roll.learner.nba.lomega.translator;
 
-import dk.brics.automaton.Automaton;
 import roll.automata.FDFA;
 import roll.automata.NBA;
-import roll.automata.operations.FDFAOperations;
+import roll.automata.operations.FDFA2NBA;
+import roll.automata.operations.FDFALassoAcceptance;
 import roll.automata.operations.NBAOperations;
 import roll.learner.fdfa.LearnerFDFA;
 import roll.learner.nba.lomega.UtilLOmega;
@@ -27,6 +27,7 @@ import roll.main.Options;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
+import roll.util.Pair;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -38,11 +39,11 @@ public abstract class TranslatorFDFA implements Translator {
 	
 	protected LearnerFDFA fdfaLearner;
 	protected FDFA fdfa;
-	protected dk.brics.automaton.Automaton autUVOmega;
 	protected Query<HashableValue> ceQuery;
 	protected boolean called ;
 	protected final Options options;
 	protected final Alphabet alphabet;
+	private final FDFA2NBA nbaBuilder;
 	
 	public TranslatorFDFA(LearnerFDFA learner) {
 		assert learner != null ;
@@ -50,6 +51,7 @@ public abstract class TranslatorFDFA implements Translator {
 		this.fdfa = fdfaLearner.getHypothesis();
 		this.options = learner.getOptions();
 		this.alphabet = fdfa.getAlphabet();
+		this.nbaBuilder = UtilLOmega.getNBABuilder(options, false);
 	}
 	
     @Override
@@ -65,37 +67,35 @@ public abstract class TranslatorFDFA implements Translator {
 	// initialize the translator for query
 	@Override
 	public void setQuery(Query<HashableValue> query) {
+		assert query.getPrefix() != null && query.getSuffix() != null;
 		this.ceQuery = query;
 		this.called = false;
-		// get deterministic automaton for (u,v)
-		Word prefix = query.getPrefix();
-		Word suffix = query.getSuffix();
-		assert prefix != null && suffix != null;
-		autUVOmega = FDFAOperations.buildDDollar(prefix, suffix);
-		autUVOmega.setDeterministic(true);
 	}
 	
-	
-	protected String getPositiveCounterExample(Automaton autDollar) {
-		// get it from complement of FDFA
-		Automaton dollarFDFAComplement = FDFAOperations.buildDTwo(fdfa);
-		Automaton autMinus = autDollar.intersection(dollarFDFAComplement);
-		assert autMinus != null;
-		String ceStr = autMinus.getShortestExample(true);
-		options.log.verbose("Counterexample in target: " + ceStr);
-		return ceStr;
+	// the shortest decomposition (x, y) of the counterexample (u, v) which
+	// is in D2 of the FDFA, i.e., y is not accepted by the progress DFA
+	protected Pair<Word, Word> getPositiveCounterExample() {
+		Pair<Word, Word> ce = FDFALassoAcceptance.normalize(fdfa, ceQuery.getPrefix()
+				, ceQuery.getSuffix(), false);
+		options.log.verbose("Counterexample in target: " + toString(ce));
+		return ce;
 	}
 	
-	protected Query<HashableValue> getQuery(String counterexample, HashableValue result) {
-		options.log.verbose("final counterexample for the FDFA learner: " + counterexample);
-		int dollarNr = counterexample.indexOf(Alphabet.DOLLAR); //
-		Word prefix = alphabet.getWordFromString(counterexample.substring(0, dollarNr));
-		Word period = alphabet.getWordFromString(counterexample.substring(dollarNr + 1));
-		Query<HashableValue> query = new QuerySimple<>(prefix, period);
+	protected Query<HashableValue> getQuery(Pair<Word, Word> counterexample, HashableValue result) {
+		options.log.verbose("final counterexample for the FDFA learner: " + toString(counterexample));
+		Query<HashableValue> query = new QuerySimple<>(counterexample.getLeft(), counterexample.getRight());
 		query.answerQuery(result);
 		return query;
 	}
 	
+	protected String toString(Pair<Word, Word> counterexample) {
+		if(counterexample == null) {
+			return "null";
+		}
+		return counterexample.getLeft().toStringWithAlphabet() + Alphabet.DOLLAR
+				+ counterexample.getRight().toStringWithAlphabet();
+	}
+	
 	@Override
 	public boolean canRefine() {
 		if(! called) {
@@ -104,10 +104,10 @@ public abstract class TranslatorFDFA implements Translator {
 		}
 	    // else it must be using optimization treating eq test as the last resort
         // check whether we can still use current counter example 
-        assert ceQuery != null && autUVOmega != null;
+        assert ceQuery != null;
         // construct lower/upper Buechi automaton
         fdfa = fdfaLearner.getHypothesis();
-        NBA nba = UtilLOmega.constructNBA(options, fdfa);
+        NBA nba = nbaBuilder.buildNBA(fdfa);
         // (u, v) is in target, not accepted then needs refine again
         boolean isCeInTarget = ceQuery.getQueryAnswer().get();
         boolean accepted = NBAOperations.accepts(nba, ceQuery.getPrefix(), ceQuery.getSuffix());
@@ -16,21 +16,17 @@
 
 package roll.learner.nba.lomega.translator;
 
-import dk.brics.automaton.Automaton;
-import dk.brics.automaton.BasicOperations;
-import dk.brics.automaton.State;
-import dk.brics.automaton.Transition;
-import gnu.trove.map.TIntObjectMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import roll.automata.DFA;
-import roll.automata.operations.DFAOperations;
+import roll.automata.operations.ProductDFA;
 import roll.learner.fdfa.LearnerFDFA;
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
 import roll.table.HashableValueBoolean;
+import roll.util.Pair;
 import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -54,19 +50,17 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	@Override
 	public Query<HashableValue> translate() {
 	    fdfa = fdfaLearner.getHypothesis();
-		String counterexample = translateUpper();
+		Pair<Word, Word> counterexample = translateUpper();
 		return getQuery(counterexample, new HashableValueBoolean(result));
 	}
 	
-	private String translateUpper() {
+	private Pair<Word, Word> translateUpper() {
 		// for general case 
-//		if(Options.verbose) AutomatonPrinter.print(autUVOmega, System.out);
-//		if(Options.verbose) learnerFDFA.getHypothesis();
 	    boolean isCeInTarget = ceQuery.getQueryAnswer().get();
 		if(isCeInTarget) {
 			// (u, v) is in L, but it is not in FDFA
 			result = true;
-			return getPositiveCounterExample(autUVOmega);
+			return getPositiveCounterExample();
 		}else {
 			// (u, v) is not in L, but it is in constructed Buechi
 			// possibly it is not in FDFA, already normalized.
@@ -77,16 +71,15 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	
 	
 	// decompose x, y, z
-	private int getLastIndexAtFinal(
-			dk.brics.automaton.Automaton dkAut, int startNr, String word) {
+	private int getLastIndexAtFinal(ProductDFA product, int startNr, Word word) {
 		int lastNr = -1, currNr = startNr;
-		State stateCurr = dkAut.getInitialState();
+		int stateCurr = product.getInitialState();
 		// record last accepting index
-		if(stateCurr.isAccept()) lastNr = startNr;
+		if(product.isFinal(stateCurr)) lastNr = startNr;
 		while(currNr < word.length()) {
-			State stateNext = stateCurr.step(word.charAt(currNr));
-			if(stateNext == null) break;
-			if(stateNext.isAccept()) {
+			int stateNext = product.getSuccessor(stateCurr, word.getLetter(currNr));
+			if(stateNext < 0) break;
+			if(product.isFinal(stateNext)) {
 				lastNr = currNr;
 			}
 			stateCurr = stateNext;
@@ -96,107 +89,148 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 		return lastNr;
 	}
 	
-	private String getCorrectNormalizedCounterExample(LearnerFDFA learnerFDFA
+	private Pair<Word, Word> getCorrectNormalizedCounterExample(LearnerFDFA learnerFDFA
 			, MembershipOracle<HashableValue> membershipOracle) {
 		
 		Word pre = null, suf = null;
-		// 1. first build dollar deterministic automaton for (u, v) 
-		options.log.verbose("DFA D_{u$v} for counterexample (u, v):\n" + autUVOmega.toDot());
+		// 1. first get the normal form of the counterexample (u, v)
+		Pair<Word, Word> normalForm = Alphabet.getNormalForm(ceQuery.getPrefix(), ceQuery.getSuffix());
 		
 		// 2. for every final state, we get normalized counterexample
 		DFA autL = fdfa.getLeadingFA();
-		TIntObjectMap<State> map = new TIntObjectHashMap<>(); 
-		Automaton dkAutL = DFAOperations.toDkDFA(map, autL);
-		
 		for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
+		    final int leadingState = stateNr;
 		    DFA autP = fdfa.getProgressFA(stateNr);
 		    ISet finalStates = autP.getFinalStates();
 		    int stateInitP = autP.getInitialState();
 		    boolean found = false;
 		    // for every final state we get the language intersection
 		    for(final int accNr : finalStates) {
-		    	// language for A^u_f
-		    	Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, accNr);
-		    	dkAutP.minimize();
-		    	// language for M^u_u
-		    	Automaton dkAutLOther = DFAOperations.toDkDFA(autL, stateNr, stateNr);
-		    	dkAutLOther.minimize();
 		    	// build product for A^u_f and M^u_u
-		    	Automaton product = dkAutP.intersection(dkAutLOther);
-		    	product.minimize();
-		    	
-		    	if(! product.getAcceptStates().isEmpty()) {
-		    		assert product.getAcceptStates().size() == 1;
-		    		// add epsilon transition to allow x, concatenate y
-		    		product = DFAOperations.addEpsilon(product);
-//					if(Options.verbose) System.out.println(
-//							"\n product: \n " + product.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(product, "cccccbcccbccbcaaaccc"));
-		    		// get u state in leading automaton
-		    		State u = map.get(stateNr); 
-		    		// add Dollar transition
-		    		Transition transDollar = new Transition(Alphabet.DOLLAR, product.getInitialState());
-		    		u.addTransition(transDollar);
-//					if(Options.verbose) System.out.println(
-//							"\n dkAutL: \n " + dkAutL.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(dkAutL, "ccaccc$cccccbcccbccbcaaaccc"));
-		            // find u $ v string
-		    		Automaton dkNFA = autUVOmega.intersection(dkAutL);
-//		    		dkNFA.minimize();
-//		    		if(Options.verbose) System.out.println(
-//							"\n dkNFA " + dkNFA.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(dkNFA, "a$cbcbcbab"));
-					
-		    		String counterexample = dkNFA.getShortestExample(true);
-					options.log.verbose(" found counterexample " + counterexample);
-		    		// remove duplicate dollar transition
-		    		if(counterexample == null) {
-		    			u.getTransitions().remove(transDollar);
-		    			continue;
-		    		}
-		    		
-		    		found = true;
-		    		// get decomposition (u, xyz...) which is not in L
-					options.log.verbose("normalized counterexample " + counterexample 
-							+ ", " + BasicOperations.run(dkNFA, counterexample));
-					
-					int dollarNr = counterexample.indexOf(Alphabet.DOLLAR); //
-					pre = alphabet.getWordFromString(counterexample.substring(0, dollarNr));
-					// must be some x,y,z concatenation
-					String period = counterexample.substring(dollarNr + 1);
-					options.log.verbose("dkAutLPOther\n " + dkAutLOther.toDot());
-					options.log.verbose("dkAutP\n " + dkAutP.toDot());
-					options.log.verbose("dkNFA\n " + dkAutP.toDot());
-					// build deterministic automaton 
-					Automaton dkAutCE = dkAutP.intersection(dkAutLOther);  
-//					Word p = learnerFDFA.getProgressStateLabel(stateNr, accNr);
-					suf = findCorrectPeriod(dkAutCE, pre, period, membershipOracle);
+		    	ProductDFA product = ProductDFA.build(new DFA[] {autL, autP}
+		    			, new int[] {stateNr, stateInitP}
+		    			, tuple -> tuple[0] == leadingState && tuple[1] == accNr);
+		    	if(product.isEmpty()) continue;
+		    	// find u $ v with M(u) = stateNr and v in L(product)^+
+		    	Pair<Word, Word> counterexample = findDecomposition(autL, stateNr, product
+		    			, normalForm.getLeft(), normalForm.getRight());
+				options.log.verbose(" found counterexample " + toString(counterexample));
+		    	if(counterexample == null) {
+		    		continue;
 		    	}
+		    	found = true;
+		    	// get decomposition (u, xyz...) which is not in L
+		    	pre = counterexample.getLeft();
+		    	// must be some x,y,z concatenation
+		    	suf = findCorrectPeriod(product, pre, counterexample.getRight(), membershipOracle);
 		    	if(found) break;
 		    }
 		    if(found) break;
 		}
 		
 		assert pre != null && suf != null;
-		String ce = pre.toStringExact() + Alphabet.DOLLAR + suf.toStringExact();
-		return ce;
+		return new Pair<>(pre, suf);
+	}
+	
+	// the shortest decomposition (x, y) of stem.loop^w such that M(x) is the
+	// leading state and y is accepted by the product after adding the epsilon
+	// transitions as in DFAOperations.addEpsilon, or null
+	private Pair<Word, Word> findDecomposition(DFA autL, int leadingState, ProductDFA product
+			, Word stem, Word loop) {
+		final int length = loop.length();
+		int state = autL.getSuccessor(stem);
+		ISet visited = UtilISet.newISet();
+		int bestPosition = -1, bestPower = 0;
+		for(int position = 0; state >= 0; position ++) {
+			// the length of x.y is at least position plus one loop
+			if(bestPosition >= 0 && position + length >= bestPosition + bestPower * length) break;
+			final int offset = position % length;
+			// the same state at the same offset, nothing new any more
+			if(visited.get(state * length + offset)) break;
+			visited.set(state * length + offset);
+			if(state == leadingState) {
+				int power = findPower(product, loop, offset);
+				if(power > 0 && (bestPosition < 0
+				   || position + power * length < bestPosition + bestPower * length)) {
+					bestPosition = position;
+					bestPower = power;
+				}
+			}
+			state = autL.getSuccessor(state, loop.getLetter(offset));
+		}
+		if(bestPosition < 0) return null;
+		int[] x = new int[stem.length() + bestPosition];
+		for(int letterNr = 0; letterNr < x.length; letterNr ++) {
+			x[letterNr] = letterNr < stem.length() ? stem.getLetter(letterNr)
+					    : loop.getLetter((letterNr - stem.length()) % length);
+		}
+		int[] y = new int[bestPower * length];
+		for(int letterNr = 0; letterNr < y.length; letterNr ++) {
+			y[letterNr] = loop.getLetter((bestPosition + letterNr) % length);
+		}
+		return new Pair<>(alphabet.getArrayWord(x), alphabet.getArrayWord(y));
+	}
+	
+	// the least k such that the loop rotated by offset to the power k is accepted
+	// by the product with epsilon transitions, or 0; the nodes of the breadth
+	// first search are the pairs of a position in the loop and a state
+	private int findPower(ProductDFA product, Word loop, int offset) {
+		final int length = loop.length();
+		final int accept = product.getFinalStates().iterator().next();
+		// the new final state which is reached whenever accept is reached
+		final int epsilon = product.getStateSize();
+		final int width = epsilon + 1;
+		int[] queue = new int[length * width];
+		int[] distances = new int[length * width];
+		ISet visited = UtilISet.newISet();
+		int head = 0, tail = 0;
+		queue[tail ++] = product.getInitialState();
+		visited.set(product.getInitialState());
+		while(head < tail) {
+			final int node = queue[head ++];
+			final int position = node / width;
+			final int state = node % width;
+			final int letter = loop.getLetter((offset + position) % length);
+			// epsilon has the transitions of the initial state
+			final int succ = product.getSuccessor(state == epsilon ? product.getInitialState() : state, letter);
+			if(succ < 0) continue;
+			final int succPosition = (position + 1) % length;
+			if(state != epsilon && succ == accept) {
+				if(succPosition == 0) {
+					return (distances[node] + 1) / length;
+				}
+				final int succNode = succPosition * width + epsilon;
+				if(! visited.get(succNode)) {
+					visited.set(succNode);
+					distances[succNode] = distances[node] + 1;
+					queue[tail ++] = succNode;
+				}
+			}
+			final int succNode = succPosition * width + succ;
+			if(! visited.get(succNode)) {
+				visited.set(succNode);
+				distances[succNode] = distances[node] + 1;
+				queue[tail ++] = succNode;
+			}
+		}
+		return 0;
 	}
 	
 	// complex analysis for counter example
-	private Word findCorrectPeriod(Automaton dkAutCE
-			, Word pre, String period, MembershipOracle<HashableValue> membershipOracle) {
+	private Word findCorrectPeriod(ProductDFA product
+			, Word pre, Word period, MembershipOracle<HashableValue> membershipOracle) {
 		
 		int startNr = 0;
 		Word suf = null;
 		//INVARIANT:  Assume that (u, xyz...) is not in L
 		while(startNr < period.length()) {
 			
-			int lastNr = getLastIndexAtFinal(dkAutCE, startNr, period);
+			int lastNr = getLastIndexAtFinal(product, startNr, period);
 			// only one x left, and (u, x) not in L
 //			assert startNr <= lastNr + 1 && startNr >= 0 && lastNr + 1 <= period.length();
 			options.log.verbose("startNr=" + startNr + " lastNr=" + lastNr + " |period|=" + period.length());
 			if(lastNr < 0) break;       
-			Word x = alphabet.getWordFromString(period.substring(startNr, lastNr + 1));
+			Word x = period.getSubWord(startNr, lastNr + 1 - startNr);
 			if(lastNr == period.length() - 1) {
 				HashableValue r = membershipOracle.answerMembershipQuery(new QuerySimple<>(pre, x));
 				if(! r.isAccepting()) {
@@ -224,17 +258,17 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	}
 	
 	// complex analysis for counter example
-	private Word findCorrectPeriod2(Automaton dkAutCE
-			, Word pre, Word p, String period, MembershipOracle<Boolean> membershipOracle) {
+	private Word findCorrectPeriod2(ProductDFA product
+			, Word pre, Word p, Word period, MembershipOracle<Boolean> membershipOracle) {
 		
 		int startNr = 0;
 		Word suf = null;
 		//INVARIANT:  Assume that (u, xyz...) is not in L
 		while(startNr < period.length()) {
 			
-			int lastNr = getLastIndexAtFinal(dkAutCE, startNr, period);
+			int lastNr = getLastIndexAtFinal(product, startNr, period);
 			// only one x left, and (u, x) not in L
-			Word x = alphabet.getWordFromString(period.substring(startNr, lastNr + 1));
+			Word x = period.getSubWord(startNr, lastNr + 1 - startNr);
 			if(lastNr == period.length() - 1) {
 				suf = x;
 				break;
@@ -248,7 +282,7 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 			}
 			// 2. Assume (u, x) in L
 			// try (u, pyz..)
-			Word yzetc = alphabet.getWordFromString(period.substring(lastNr + 1));
+			Word yzetc = period.getSuffix(lastNr + 1);
 			Word pyzetc = p.concat(yzetc);
 			r = membershipOracle.answerMembershipQuery(new QuerySimple<>(pre, pyzetc));
 			
@@ -262,8 +296,8 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
             
             // (u, yz...) is in L, then check the length of yz...
             if(r) {
-            	int lastYNr = getLastIndexAtFinal(dkAutCE, lastNr + 1, period);
-            	Word yz = alphabet.getWordFromString(period.substring(lastNr + 1));
+            	int lastYNr = getLastIndexAtFinal(product, lastNr + 1, period);
+            	Word yz = period.getSuffix(lastNr + 1);
             	if(lastYNr == period.length() - 1) {
             		result = true;
             		suf = yz.concat(yz); // y distinguish p and y since (u, py) is not in L
@@ -271,7 +305,6 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
             		// there exists z... and yz... can not lead to that accepting state?
             		options.log.err( "Unfortunately, we can not find a valid counterexample");
             	    options.log.verbose("period left: " + yz.toStringExact());
-            	    options.log.verbose("progress automaton left: \n" + dkAutCE.toDot());
             	    System.exit(-1);
             		suf = yz;
             	}
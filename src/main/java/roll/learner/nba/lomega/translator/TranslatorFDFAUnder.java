@@ -17,11 +17,12 @@
 package roll.learner.nba.lomega.translator;
 
 
-import dk.brics.automaton.Automaton;
-import roll.automata.operations.FDFAOperations;
+import roll.automata.operations.FDFALassoAcceptance;
 import roll.learner.fdfa.LearnerFDFA;
 import roll.query.Query;
 import roll.table.HashableValue;
+import roll.util.Pair;
+import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -37,31 +38,27 @@ public class TranslatorFDFAUnder extends TranslatorFDFA {
 	public Query<HashableValue> translate() {
 	    // every time we initialize fdfa, in case it is modified
 	    fdfa = fdfaLearner.getHypothesis();
-		String counterexample = translateLower();
+		Pair<Word, Word> counterexample = translateLower();
 		return getQuery(counterexample, ceQuery.getQueryAnswer());
 	}
 	
 	// -------- this is for lower BA construction ----------------
-	private String translateLower() {
-		options.log.verbose("DFA D_{u$v} for counterexample (u, v):\n" + autUVOmega.toDot());
+	private Pair<Word, Word> translateLower() {
 		boolean isCeInTarget = ceQuery.getQueryAnswer().get();
 		
-		String ceStr = null;
+		Pair<Word, Word> ce = null;
 		if(isCeInTarget) {
 			// positive Counterexample, (u, v) is in target, not in constructed
 			// BA, but possibly it is in FDFA, , already normalized
-			ceStr = getPositiveCounterExample(autUVOmega);
+			ce = getPositiveCounterExample();
 		}else {
 			// negative Counterexample, (u, v) is not in target, but in FDFA
-			// get intersection, already normalized.
-			Automaton dollarFDFA = FDFAOperations.buildDOne(fdfa);
-			Automaton autInter = autUVOmega.intersection(dollarFDFA);
-			assert autInter != null;
-			ceStr = autInter.getShortestExample(true);
-			options.log.verbose("Counterexample not in target: " + ceStr);
+			// get the decomposition in D1, already normalized.
+			ce = FDFALassoAcceptance.normalize(fdfa, ceQuery.getPrefix(), ceQuery.getSuffix());
+			options.log.verbose("Counterexample not in target: " + toString(ce));
 		}
 		
-		return ceStr;
+		return ce;
 	}
 
 }
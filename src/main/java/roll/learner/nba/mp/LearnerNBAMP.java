@@ -177,37 +177,23 @@ public class LearnerNBAMP extends LearnerBase<NBA> {
         return dfa;
     }
 
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+    @Override
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
         assert valueExpr instanceof ExprValueWordPair;
         Word prefix = row.getWord();        //u
         Word left = valueExpr.getLeft();    //x
         prefix = prefix.concat(left);       //ux
         Word suffix = valueExpr.getRight();  // ux(y)^w
-        HashableValue result = processMembershipQuery(row, prefix, suffix, offset);
-        Query<HashableValue> query = getQuerySimple(row, prefix, suffix, offset);
-        query.answerQuery(result);
-        return query;
+        return getQuerySimple(row, prefix, suffix, offset);
     }
     
     protected Query<HashableValue> getQuerySimple(ObservationRow row, Word prefix, Word suffix, int column) {
         return new QuerySimple<>(row, prefix, suffix, column);
     }
 
-    protected HashableValue processMembershipQuery(ObservationRow row, Word prefix, Word suffix, int column) {
-        return membershipOracle.answerMembershipQuery(getQuerySimple(row, prefix, suffix, column));
-    }
-    
     protected void processMembershipQueries(List<ObservationRow> rows
             , int colOffset, int length) {
-        List<Query<HashableValue>> results = new ArrayList<>();
-        List<ExprValue> columns = observationTable.getColumns();
-        int endNr = length + colOffset;
-        for(ObservationRow row : rows) {
-            for(int colNr = colOffset; colNr < endNr; colNr ++) {
-                results.add(processMembershipQuery(row, colNr, columns.get(colNr)));
-            }
-        }
-        putQueryAnswers(results);
+        processMembershipQueries(observationTable, rows, colOffset, length);
     }
         
     protected void putQueryAnswers(List<Query<HashableValue>> queries) {
@@ -18,23 +18,34 @@ package roll.learner.nfa.nlstar;
 
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import roll.table.ExprValue;
 import roll.table.HashableValue;
-import roll.table.HashableValueBoolean;
 import roll.table.ObservationRow;
 import roll.table.ObservationRowAbstract;
 import roll.table.ObservationRowBase;
 import roll.table.ObservationTableBase;
 import roll.table.ObservationTablePrinterBoolean;
 import roll.words.Alphabet;
+import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Whether a row is prime only depends on its values and the distinct values
+ * of all rows in the table: it is not prime iff it is the union of the rows
+ * it strictly covers. We keep the distinct values as bit vectors with the
+ * union of the vectors they strictly cover, which is updated when new rows
+ * arrive, and rebuild them only when existing rows change, i.e., when a
+ * column is added.
  * */
 
 public class ObservationTableNLStar extends ObservationTableBase {
@@ -44,12 +55,20 @@ public class ObservationTableNLStar extends ObservationTableBase {
     private final List<ObservationRow> upperPrimes;
     private final LearnerNFATable learner;
     
+    private final Map<RowVector, RowVector> vectors;
+    private final Map<ObservationRow, RowVector> rowVectors;
+    private final List<ObservationRow> newRows; // rows not in rowVectors yet
+    private boolean rebuild;
+    
     public ObservationTableNLStar(LearnerNFATable learner, Alphabet alphabet) {
         super();
         this.learner = learner;
         this.alphabet = alphabet;
         this.columnSet = new TreeSet<>();
         this.upperPrimes = new ArrayList<>();
+        this.vectors = new HashMap<>();
+        this.rowVectors = new IdentityHashMap<>();
+        this.newRows = new ArrayList<>();
     }
     
     public boolean isInColumn(ExprValue exprValue) {
@@ -59,91 +78,152 @@ public class ObservationTableNLStar extends ObservationTableBase {
     @Override
     public int addColumn(ExprValue column) {
         if(isInColumn(column)) {
-            return columns.indexOf(column);
+            return getColumnIndex(column);
         }
         columnSet.add(column);
-        int index = columns.size();
-        columns.add(column);
-        assert columns.get(index).equals(column);
-        assert columns.indexOf(column) == index : "new column to be added: " + column;
-        return index;
+        return super.addColumn(column);
     }
         
     protected List<ObservationRow> getUpperPrimes() {
         return Collections.unmodifiableList(upperPrimes);
     }
     
-    protected boolean isPrimeRow(ObservationRow row) {
-        return isPrimeRow(upperTable, row);
-    }
-    
-    protected boolean isPrimeRow(List<ObservationRow> upperPrimes, ObservationRow row) {
-        ObservationRowAbstract rowOrs = new ObservationRowBase(alphabet.getEmptyWord());
-        boolean merged = false;
-        // upperTable has been replaced by upperPrimes 
-        for(ObservationRow upperRow : upperPrimes) {
-            // get all upper rows union
-            if(row != upperRow && !row.getWord().equals(upperRow.getWord()) && !row.valuesEqual(upperRow) && row.covers(upperRow)) {
-                rowOrOp(rowOrs, upperRow);
-                merged = true;
-            }
+    // distinct values of rows, strictlyCovered is the union of the vectors
+    // strictly covered by this vector
+    private static class RowVector {
+        final long[] bits;
+        final long[] strictlyCovered;
+        boolean merged;
+        
+        RowVector(long[] bits) {
+            this.bits = bits;
+            this.strictlyCovered = new long[bits.length];
         }
         
-        // merged and rowOrs are equivalent
-        if(merged && row.valuesEqual(rowOrs)) {
-            return false;
+        // this vector covers other and they are not equal
+        boolean coversStrictly(RowVector other) {
+            for(int i = 0; i < bits.length; i ++) {
+                if((other.bits[i] & ~bits[i]) != 0) {
+                    return false;
+                }
+            }
+            return !Arrays.equals(bits, other.bits);
         }
         
-        // try lower table
-        for(ObservationRow lowerRow : lowerTable) {
-            // get all upper rows union
-            if(row != lowerRow && !row.getWord().equals(lowerRow.getWord()) && !row.valuesEqual(lowerRow) && row.covers(lowerRow)) {
-                rowOrOp(rowOrs, lowerRow);
-                merged = true;
+        void merge(RowVector other) {
+            for(int i = 0; i < bits.length; i ++) {
+                strictlyCovered[i] |= other.bits[i];
             }
+            merged = true;
+        }
+        
+        boolean isPrime() {
+            return !(merged && Arrays.equals(bits, strictlyCovered));
         }
         
-        return !(merged && row.valuesEqual(rowOrs));
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RowVector && Arrays.equals(bits, ((RowVector)obj).bits);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bits);
+        }
+    }
+    
+    private RowVector getRowVector(ObservationRow row) {
+        List<HashableValue> values = row.getValues();
+        long[] bits = new long[(values.size() + 63) >>> 6];
+        for(int i = 0; i < values.size(); i ++) {
+            if(values.get(i).isAccepting()) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        RowVector vector = new RowVector(bits);
+        RowVector result = vectors.get(vector);
+        if(result != null) {
+            return result;
+        }
+        // only the vectors covering or covered by the new one are affected
+        for(RowVector other : vectors.values()) {
+            if(vector.coversStrictly(other)) {
+                vector.merge(other);
+            }else if(other.coversStrictly(vector)) {
+                other.merge(vector);
+            }
+        }
+        vectors.put(vector, vector);
+        return vector;
+    }
+    
+    private void updateRowVectors() {
+        if(rebuild) {
+            vectors.clear();
+            rowVectors.clear();
+            newRows.clear();
+            newRows.addAll(upperTable);
+            newRows.addAll(lowerTable);
+            rebuild = false;
+        }
+        for(ObservationRow row : newRows) {
+            rowVectors.put(row, getRowVector(row));
+        }
+        newRows.clear();
+    }
+    
+    @Override
+    protected void updateRow(ObservationRowAbstract row, int oldHashCode) {
+        super.updateRow(row, oldHashCode);
+        if(rowVectors.containsKey(row)) {
+            rebuild = true;
+        }
+    }
+    
+    @Override
+    public ObservationRowBase addLowerRow(Word word) {
+        ObservationRowBase row = super.addLowerRow(word);
+        newRows.add(row);
+        return row;
+    }
+
+    @Override
+    public ObservationRowBase addUpperRow(Word word) {
+        ObservationRowBase row = super.addUpperRow(word);
+        newRows.add(row);
+        return row;
     }
     
     @Override
     public ObservationRow getUnclosedLowerRow() {
-        
+        updateRowVectors();
         // first we have to find out the prime rows in the upper row
         upperPrimes.clear();
+        Set<RowVector> upperVectors = Collections.newSetFromMap(new IdentityHashMap<>());
         for(ObservationRow upperRow : upperTable) {
-            if(isPrimeRow(upperRow)) {
+            RowVector vector = rowVectors.get(upperRow);
+            upperVectors.add(vector);
+            if(vector.isPrime()) {
                 upperPrimes.add(upperRow);
             }
         }
-        
+        // a prime lower row without equal upper row
         for(ObservationRow lowerRow : lowerTable) {
-            // first make sure this lower row is in prime
-            boolean inPrime = false;
-            for(int i = 0; i < upperPrimes.size(); i ++) {
-                if(lowerRow.valuesEqual(upperPrimes.get(i))) {
-                    inPrime = true;
-                    break;
-                }
-            }
-            // second make sure this lower row is prime
-            if(inPrime || !isPrimeRow(upperPrimes, lowerRow)) {
-                continue;
+            RowVector vector = rowVectors.get(lowerRow);
+            if(vector.isPrime() && !upperVectors.contains(vector)) {
+                return lowerRow;
             }
-            // it is prime
-            return lowerRow;
         }
         return null;
     }
     
-    // only allow boolean results
-    protected void rowOrOp(ObservationRowAbstract row1, ObservationRow row2) {
-        List<HashableValue> row2Values = row2.getValues();
-        List<HashableValue> row1Values = row1.getValues();
-        for(int i = 0; i < row2Values.size(); i ++) {
-            if(row1Values.size() <= i) row1.add(new HashableValueBoolean(false));
-            row1.set(i, new HashableValueBoolean(row1Values.get(i).isAccepting() || row2Values.get(i).isAccepting()));
-        }
+    @Override
+    public void clear() {
+        super.clear();
+        vectors.clear();
+        rowVectors.clear();
+        newRows.clear();
+        rebuild = false;
     }
 
     // row(s1) covers row(s2) and for some a, v, row(s1.a.v) = - and row(s2.a.v) = +
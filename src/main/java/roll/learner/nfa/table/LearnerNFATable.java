@@ -176,25 +176,13 @@ public class LearnerNFATable extends LearnerFA<NFA> {
 
     protected void processMembershipQueries(List<ObservationRow> rows
             , int colOffset, int length) {
-        List<Query<HashableValue>> results = new ArrayList<>();
-        List<ExprValue> columns = observationTable.getColumns();
-        int endNr = length + colOffset;
-        for(ObservationRow row : rows) {
-            for(int colNr = colOffset; colNr < endNr; colNr ++) {
-                results.add(processMembershipQuery(row, colNr, columns.get(colNr)));
-            }
-        }
-        putQueryAnswers(results);
+        processMembershipQueries(observationTable, rows, colOffset, length);
     }
     
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
-        // ask membership query for column . row
-        Query<HashableValue> query = new QuerySimple<>(row, valueExpr.get(), row.getWord(), offset);
-        HashableValue result = membershipOracle.answerMembershipQuery(query);
-        // put result for (row, column) 
-        Query<HashableValue> queryResult = new QuerySimple<>(row, row.getWord(), valueExpr.get(), offset);
-        queryResult.answerQuery(result);
-        return queryResult;
+    @Override
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+        // ask membership query for column . row, the result is put for (row, column)
+        return new QuerySimple<>(row, valueExpr.get(), row.getWord(), offset);
     }
         
     protected void putQueryAnswers(List<Query<HashableValue>> queries) {
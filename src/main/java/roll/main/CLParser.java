@@ -26,6 +26,7 @@ import java.util.List;
 
 import roll.parser.Format;
 import roll.util.Pair;
+import roll.util.sets.UtilISet;
 
 
 /**
@@ -213,7 +214,43 @@ public class CLParser {
             }
             
             if(args[i].compareTo("-bs")==0) {
-                options.binarySearch = true;
+                options.ceSearch = Options.CeSearch.BINARY;
+                continue;
+            }
+            if(args[i].compareTo("-mince")==0) {
+                options.minimizeCounterexample = true;
+                continue;
+            }
+            if(args[i].compareTo("-ce")==0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-ce should be followed by linear, binary, exp or partition");
+                }
+                options.ceSearch = parseCeSearch(args[i + 1]);
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-set")==0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-set should be followed by bits, hybrid, tree or trove");
+                }
+                options.setRepresentation = parseSetRepresentation(args[i + 1]);
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-cache")==0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-cache should be followed by the number of cached queries");
+                }
+                options.membershipCacheSize = parseInt(args[i + 1], "-cache");
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-mqthreads")==0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-mqthreads should be followed by the number of threads");
+                }
+                options.membershipThreads = parseInt(args[i + 1], "-mqthreads");
+                i += 1;
                 continue;
             }
             if(args[i].compareTo("-out")==0){
@@ -312,6 +349,38 @@ public class CLParser {
                 options.parallel = true;
                 continue;
             }
+            if(args[i].compareTo("-spotmin") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-spotmin should be followed by the number of states");
+                }
+                options.spotMinStates = parseInt(args[i + 1], "-spotmin");
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-rabitmax") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-rabitmax should be followed by the number of states");
+                }
+                options.rabitMaxStates = parseInt(args[i + 1], "-rabitmax");
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-spottimeout") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-spottimeout should be followed by milliseconds");
+                }
+                options.spotTimeout = parseInt(args[i + 1], "-spottimeout");
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-rabittimeout") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-rabittimeout should be followed by milliseconds");
+                }
+                options.rabitTimeout = parseInt(args[i + 1], "-rabittimeout");
+                i += 1;
+                continue;
+            }
             if(args[i].endsWith(".ba")) {
                 options.inputFile = args[i];
                 options.format = Format.BA;
@@ -331,6 +400,37 @@ public class CLParser {
         }
         
         options.checkConsistency();
+        UtilISet.setRepresentation(options.setRepresentation);
+    }
+    
+    private Options.CeSearch parseCeSearch(String str) {
+        switch(str) {
+        case "linear":
+            return Options.CeSearch.LINEAR;
+        case "binary":
+            return Options.CeSearch.BINARY;
+        case "exp":
+            return Options.CeSearch.EXPONENTIAL;
+        case "partition":
+            return Options.CeSearch.PARTITION;
+        default:
+            throw new UnsupportedOperationException("Invalid search method: " + str + " followed by -ce");
+        }
+    }
+    
+    private UtilISet.Representation parseSetRepresentation(String str) {
+        switch(str) {
+        case "bits":
+            return UtilISet.Representation.BITS;
+        case "hybrid":
+            return UtilISet.Representation.HYBRID;
+        case "tree":
+            return UtilISet.Representation.TREESET;
+        case "trove":
+            return UtilISet.Representation.TINTSET;
+        default:
+            throw new UnsupportedOperationException("Invalid set representation: " + str + " followed by -set");
+        }
     }
     
     private int parseInt(String str, String option) {
@@ -412,13 +512,22 @@ public class CLParser {
         	, new Pair<>("-over", "Over-approximation in BA construction for FDFA")
         	, new Pair<>("-under", "Under-approximation in BA construction for FDFA (Default)")
         	, new Pair<>("-bs", "Binary search for finding a suffix in counterexample")
+        	, new Pair<>("-ce <k>", "Search a suffix in counterexample by linear (Default), binary, exp or partition")
+        	, new Pair<>("-mince", "Shorten the counterexample of BA learning before refinement")
         	, new Pair<>("-lazyeq", "Equivalence check as the last resort")
         	, new Pair<>("-ldba", "Limit-deterministic BA as the learned BA")
         	, new Pair<>("-spot", "Spot for checking inclusion in learning/complementation")
         	, new Pair<>("-rev", "Complement teacher to learn the target nondeterministic BA")
         	, new Pair<>("-par", "RABIT and Spot work in parallel in the complement teacher")
+        	, new Pair<>("-spotmin <k>", "With -par, Spot only runs on BAs with more than <k> states (Default 45)")
+        	, new Pair<>("-rabitmax <k>", "With -par, RABIT only runs on BAs with at most <k> states (Default 0 for any)")
+        	, new Pair<>("-spottimeout <k>", "With -par, Spot is cancelled after <k> ms (Default 0 for no limit)")
+        	, new Pair<>("-rabittimeout <k>", "With -par, RABIT is cancelled after <k> ms (Default 0 for no limit)")
         	, new Pair<>("-fin", "Interpret the input LTL formula over finite words")
         	, new Pair<>("-p <prob>", "Probability to terminate during sampling")
+        	, new Pair<>("-set <k>", "State sets as bits (Default), hybrid (sparse array/bitmap), tree or trove (hash set)")
+        	, new Pair<>("-cache <k>", "Cache the answers of at most <k> membership queries (Default 0)")
+        	, new Pair<>("-mqthreads <k>", "Answer a batch of membership queries with <k> threads (Default 1)")
 //        	, new Pair<>("-f <ltl>", "Convert LTL to limit deterministic BA")
 //        	, new Pair<>("-fdfa", "FDFA as the learning target")
 //        	, new Pair<>("-nba", "NBA as the learning target")
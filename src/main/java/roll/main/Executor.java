@@ -22,7 +22,8 @@ import roll.automata.NBA;
 import roll.learner.LearnerBase;
 import roll.learner.nba.ldollar.LearnerNBALDollar;
 import roll.learner.nba.lomega.LearnerNBALOmega;
-import roll.learner.nba.lomega.UtilLOmega;
+import roll.oracle.MembershipOracle;
+import roll.oracle.MembershipOracleCache;
 import roll.oracle.Teacher;
 import roll.oracle.nba.TeacherNBA;
 import roll.oracle.nba.TeacherNBAImpl;
@@ -60,7 +61,7 @@ public class Executor {
                 options.stats.numOfStatesInProgress.add(fdfa.getProgressFA(state).getStateSize());
             }
             if(options.automaton.isLDBA()) {
-                hypothesis = UtilLOmega.constructLDBA(options, fdfa);
+                hypothesis = learnerLOmega.getLDBA();
             }
         }else if(learner instanceof LearnerNBALDollar) {
             LearnerNBALDollar learnerLDollar = (LearnerNBALDollar)learner;
@@ -109,12 +110,13 @@ public class Executor {
     public static LearnerBase<NBA> getLearner(Options options, Alphabet alphabet,
             Teacher<NBA, Query<HashableValue>, HashableValue> teacher) {
         LearnerBase<NBA> learner = null;
+        MembershipOracle<HashableValue> mqOracle = MembershipOracleCache.wrap(options, teacher, true);
         if(options.algorithm == Options.Algorithm.NBA_LDOLLAR) {
-            learner = new LearnerNBALDollar(options, alphabet, teacher);
+            learner = new LearnerNBALDollar(options, alphabet, mqOracle);
         }else if(options.algorithm == Options.Algorithm.PERIODIC
              || options.algorithm == Options.Algorithm.SYNTACTIC
              || options.algorithm == Options.Algorithm.RECURRENT) {
-            learner = new LearnerNBALOmega(options, alphabet, teacher);
+            learner = new LearnerNBALOmega(options, alphabet, mqOracle);
         }else {
             throw new UnsupportedOperationException("Unsupported BA Learner");
         }
@@ -34,6 +34,7 @@ import roll.learner.nba.ldollar.LearnerNBALDollar;
 import roll.learner.nba.lomega.LearnerNBALOmega;
 import roll.learner.nfa.nlstar.LearnerNFANLStar;
 import roll.oracle.MembershipOracle;
+import roll.oracle.MembershipOracleCache;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
@@ -108,6 +109,12 @@ public class InteractiveMode {
     public static LearnerBase<? extends NFA> getLearner(Options options, Alphabet alphabet,
             MembershipOracle<HashableValue> teacher) {
         LearnerBase<? extends NFA> learner = null;
+        // omega-words are queried by L$ and FDFA learners
+        boolean omega = options.algorithm == Options.Algorithm.NBA_LDOLLAR
+                || options.algorithm == Options.Algorithm.PERIODIC
+                || options.algorithm == Options.Algorithm.SYNTACTIC
+                || options.algorithm == Options.Algorithm.RECURRENT;
+        teacher = MembershipOracleCache.wrap(options, teacher, omega);
         if(options.algorithm == Options.Algorithm.NBA_LDOLLAR) {
             learner = (LearnerBase<? extends NFA>)new LearnerNBALDollar(options, alphabet, teacher);
         }else if(options.algorithm == Options.Algorithm.PERIODIC
@@ -21,6 +21,7 @@ import java.io.PrintStream;
 
 import roll.parser.Format;
 import roll.parser.PairParser;
+import roll.util.sets.UtilISet;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -64,8 +65,11 @@ public class Options {
     // only noninclusion
     public boolean nonIncusion = false;
     
-    // search method for counterexample
-    public boolean binarySearch = false;
+    // search method for the break index in a counterexample
+    public CeSearch ceSearch = CeSearch.LINEAR;
+    
+    // shorten lasso counterexamples before refinement
+    public boolean minimizeCounterexample = false;
     
     // output file for learned automaton
     public String outputFile = null;
@@ -85,6 +89,15 @@ public class Options {
     public boolean spot = false;
 
     public boolean parallel = false;
+    
+    // backends of the inclusion portfolio with -par, Spot only runs on automata with
+    // more states in total and RABIT on those with at most as many states (0 for any)
+    public int spotMinStates = 45;
+    public int rabitMaxStates = 0;
+    // milliseconds a backend of the portfolio may run, 0 for no limit; if no backend
+    // decides the inclusion in time, it is checked without the portfolio
+    public long spotTimeout = 0;
+    public long rabitTimeout = 0;
 
     // use the complement teacher to learn the target BA
     public boolean reverse = false;
@@ -105,6 +118,15 @@ public class Options {
     
     public boolean finite = false;
     
+    // representation of the state sets
+    public UtilISet.Representation setRepresentation = UtilISet.Representation.BITS;
+    
+    // capacity of the membership query cache, 0 for no caching
+    public int membershipCacheSize = 0;
+    
+    // number of threads answering a batch of membership queries, 1 for sequential
+    public int membershipThreads = 1;
+    
     public Options(OutputStream out) {
         this.log = new Log(this, new PrintStream(out));
         this.stats = new Statistics(this);
@@ -169,6 +191,13 @@ public class Options {
         }
     }
     
+    public static enum CeSearch {
+        LINEAR,      // one query per letter from the front
+        BINARY,      // binary search over the whole counterexample
+        EXPONENTIAL, // probe positions 1, 2, 4, ... then binary search
+        PARTITION    // probe blocks of length n/log(n) then binary search
+    }
+    
     public static enum Approximation {
         UNDER,
         OVER
@@ -236,7 +265,15 @@ public class Options {
             builder.append("k=" + numOfTests + "," + "n=" + numOfStatesForTest + ",");
         }
         builder.append("verbose=" + verbose + ",");
-        builder.append("bs=" + binarySearch + ",");
+        builder.append("ce=" + ceSearch + ",");
+        builder.append("mince=" + minimizeCounterexample + ",");
+        builder.append("set=" + setRepresentation + ",");
+        builder.append("cache=" + membershipCacheSize + ",");
+        builder.append("mqthreads=" + membershipThreads + ",");
+        if(parallel) {
+            builder.append("spotmin=" + spotMinStates + "," + "rabitmax=" + rabitMaxStates + ",");
+            builder.append("spottimeout=" + spotTimeout + "," + "rabittimeout=" + rabitTimeout + ",");
+        }
         builder.append("dot=" + dot + ",");
         builder.append("inputfile=" + inputFile + ",");
         builder.append("outputfile=" + outputFile + ",");
@@ -22,13 +22,11 @@ import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 
-import dk.brics.automaton.Automaton;
 import roll.automata.DFA;
 import roll.automata.FDFA;
 import roll.automata.NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAGenerator;
-import roll.automata.operations.NBAOperations;
 import roll.automata.operations.NFAOperations;
 import roll.automata.operations.nba.inclusion.NBAInclusionCheckTool;
 import roll.learner.LearnerDFA;
@@ -42,6 +40,8 @@ import roll.main.complement.TeacherNBAComplement;
 import roll.main.inclusion.NBAInclusionCheck;
 import roll.main.ltl2dpa.TeacherLTL2LDBA;
 import roll.main.ltlf2dfa.TeacherLTLf2DFA;
+import roll.oracle.MembershipOracle;
+import roll.oracle.MembershipOracleCache;
 import roll.parser.PairParser;
 import roll.parser.Parser;
 import roll.parser.UtilParser;
@@ -228,7 +228,8 @@ public final class ROLL {
         options.stats.numOfStatesInTraget = input.getStateSize();
         
         TeacherNBAComplement teacher = new TeacherNBAComplement(options, input);
-        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, input.getAlphabet(), teacher);
+        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, input.getAlphabet()
+                , MembershipOracleCache.wrap(options, teacher, true));
         options.log.println("Initializing learner...");
         Timer timer = new Timer();
         long t = timer.getCurrentTime();
@@ -273,8 +274,7 @@ public final class ROLL {
             return options.stats.hypothesis;
         }else {
         	// construct the B(F^c)
-        	Automaton dkBFC = FDFAOperations.buildNegNBA(hypothesis);
-            NBA BFC = NBAOperations.fromDkNBA(dkBFC, input.getAlphabet());
+        	NBA BFC = FDFAOperations.buildNegNBA(hypothesis);
             return BFC;
         }
     }
@@ -318,7 +318,8 @@ public final class ROLL {
         // prepare the parser
         TeacherLTL2LDBA teacher = new TeacherLTL2LDBA(options, options.ltl);
         PairParser parser = options.parser;
-        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, teacher.getAlphabet(), teacher);
+        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, teacher.getAlphabet()
+                , MembershipOracleCache.wrap(options, teacher, true));
         options.log.println("Initializing learner...");
         long t = timer.getCurrentTime();
         learner.startLearning();
@@ -358,13 +359,12 @@ public final class ROLL {
         options.log.println("Learning completed...");
         
         teacher.print();
-        Automaton dkBFC = null;
+        NBA BFC = null;
         if(options.automaton.isLDBA()) {
-        	dkBFC = FDFAOperations.buildUnderLDBA(hypothesis);
+        	BFC = FDFAOperations.buildUnderLDBA(hypothesis);
         }else {
-        	dkBFC = FDFAOperations.buildUnderNBA(hypothesis);
+        	BFC = FDFAOperations.buildUnderNBA(hypothesis);
         }
-        NBA BFC = NBAOperations.fromDkNBA(dkBFC, teacher.getAlphabet());
         // output target automaton
         options.log.println("\ntarget automaton:");
         parser.print(BFC, options.log.getOutputStream());
@@ -386,10 +386,11 @@ public final class ROLL {
        TeacherLTLf2DFA teacher = new TeacherLTLf2DFA(options, options.ltl);
        PairParser parser = options.parser;
        LearnerDFA learner = null;
+       MembershipOracle<HashableValue> mqOracle = MembershipOracleCache.wrap(options, teacher, false);
        if(options.structure.isTable()) {
-    	   learner = new LearnerDFATableColumn(options, parser.getA().getAlphabet(), teacher);
+    	   learner = new LearnerDFATableColumn(options, parser.getA().getAlphabet(), mqOracle);
        }else {
-    	   learner = new LearnerDFATreeColumn(options, parser.getA().getAlphabet(), teacher);
+    	   learner = new LearnerDFATreeColumn(options, parser.getA().getAlphabet(), mqOracle);
        }
        options.log.println("Initializing learner...");
        long t = timer.getCurrentTime();
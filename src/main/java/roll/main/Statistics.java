@@ -18,6 +18,10 @@ package roll.main;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import roll.automata.NBA;
 
@@ -34,14 +38,23 @@ public class Statistics {
     public int numOfStatesInHypothesis ;
     public int numOfTransInHypothesis  ; // number of transitions in hypothesis
     
-    public int numOfMembershipQuery ; // number of membership query
+    // membership counters may be updated by several threads at the same time
+    public final LongAdder numOfMembershipQuery = new LongAdder(); // number of membership query
     public int numOfEquivalenceQuery ; // number of equivalence query
     
+    public final LongAdder numOfMembershipCacheHit = new LongAdder(); // number of membership query answered by the cache
+    public final LongAdder numOfMembershipCacheMiss = new LongAdder(); // number of membership query passed to the teacher by the cache
+    public final LongAdder numOfStoreHitInLeading = new LongAdder(); // number of queries of leading learner answered by the FDFA query store
+    public final LongAdder numOfStoreHitInProgress = new LongAdder(); // number of queries of progress learners answered by the FDFA query store
+    
+    // number of inclusion checks decided by each backend of the portfolio
+    public final Map<String, LongAdder> numOfInclusionWins = new ConcurrentHashMap<>();
+    
     public int numOfStatesInLeading; // number of states in leading automaton
     public List<Integer> numOfStatesInProgress; // number of states in progress automata
     
     
-    public long timeOfMembershipQuery ; // milliseconds used in membership query 
+    public final LongAdder timeOfMembershipQuery = new LongAdder(); // milliseconds used in membership query 
     public long timeOfEquivalenceQuery ;// milliseconds used in equivalence query
     public long timeOfLastEquivalenceQuery; // time for last eq check
     public long timeInTotal; // milliseconds used in learning
@@ -70,6 +83,10 @@ public class Statistics {
         this.numOfStatesInProgress = new ArrayList<>();
     }
     
+    public void addInclusionWinner(String backend) {
+        numOfInclusionWins.computeIfAbsent(backend, name -> new LongAdder()).increment();
+    }
+    
     public void print() {
         int indent = 30;
         if(numOfStatesInProgress.size() > indent) {
@@ -99,6 +116,17 @@ public class Statistics {
         
         log.println("#MQ = " + numOfMembershipQuery , indent , "    // #membership query");
         log.println("#EQ = " + numOfEquivalenceQuery , indent , "    // #equivalence query");
+        if(options.membershipCacheSize > 0) {
+            log.println("#MQH = " + numOfMembershipCacheHit , indent , "    // #membership query hitting the cache");
+            log.println("#MQM = " + numOfMembershipCacheMiss , indent , "    // #membership query missing the cache");
+        }
+        if(options.algorithm.isTargetFDFA()) {
+            log.println("#MQSL = " + numOfStoreHitInLeading , indent , "    // #leading queries answered by the FDFA query store");
+            log.println("#MQSP = " + numOfStoreHitInProgress , indent , "    // #progress queries answered by the FDFA query store");
+        }
+        if(options.parallel) {
+            log.println("#INW = " + new TreeMap<>(numOfInclusionWins), indent , "    // #inclusion checks decided by each backend");
+        }
         
         log.println("#TMQ = " + timeOfMembershipQuery + " (ms)" , indent , "    // time for membership queries");
         log.println("#TEQ = " + timeOfEquivalenceQuery + " (ms)" , indent , "    // time for equivalence queries");
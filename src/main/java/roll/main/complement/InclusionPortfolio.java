@@ -0,0 +1,186 @@
+package roll.main.complement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import automata.FiniteAutomaton;
+import roll.automata.NBA;
+import roll.main.Options;
+import roll.oracle.nba.rabit.RabitThread;
+import roll.words.Alphabet;
+
+/**
+ * runs several inclusion checkers on the same pair of Buchi automata, the
+ * first one that decides the inclusion wins and the others are cancelled
+ * by interrupting them, a checker is also cancelled when its time is over
+ * */
+public class InclusionPortfolio {
+	
+	// all portfolios share the threads
+	private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable);
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public interface Backend {
+		
+		String getName();
+		
+		// whether it is worth to run the backend on A and B
+		boolean isApplicable(NBA A, NBA B);
+		
+		// milliseconds the backend may run, 0 for no limit
+		long getTimeout();
+		
+		// must stop soon once the calling thread is interrupted
+		Callable<IsIncluded> getChecker(Alphabet alphabet, NBA A, NBA B, FiniteAutomaton rA, FiniteAutomaton rB);
+	}
+	
+	private final Options options;
+	private final List<Backend> backends;
+	
+	public InclusionPortfolio(Options options) {
+		this.options = options;
+		this.backends = new ArrayList<>();
+	}
+	
+	public void addBackend(Backend backend) {
+		backends.add(backend);
+	}
+	
+	// RABIT and Spot with the size thresholds and timeouts in options
+	public static InclusionPortfolio getDefault(Options options) {
+		InclusionPortfolio portfolio = new InclusionPortfolio(options);
+		portfolio.addBackend(new Backend() {
+			@Override
+			public String getName() {
+				return "RABIT";
+			}
+			@Override
+			public boolean isApplicable(NBA A, NBA B) {
+				return options.rabitMaxStates <= 0
+					|| A.getStateSize() + B.getStateSize() <= options.rabitMaxStates;
+			}
+			@Override
+			public long getTimeout() {
+				return options.rabitTimeout;
+			}
+			@Override
+			public Callable<IsIncluded> getChecker(Alphabet alphabet, NBA A, NBA B
+					, FiniteAutomaton rA, FiniteAutomaton rB) {
+				return () -> RabitThread.check(alphabet, rA, rB, options);
+			}
+		});
+		portfolio.addBackend(new Backend() {
+			@Override
+			public String getName() {
+				return "Spot";
+			}
+			@Override
+			public boolean isApplicable(NBA A, NBA B) {
+				return A.getStateSize() + B.getStateSize() > options.spotMinStates;
+			}
+			@Override
+			public long getTimeout() {
+				return options.spotTimeout;
+			}
+			@Override
+			public Callable<IsIncluded> getChecker(Alphabet alphabet, NBA A, NBA B
+					, FiniteAutomaton rA, FiniteAutomaton rB) {
+				return new SpotThread1(A, B, options);
+			}
+		});
+		return portfolio;
+	}
+	
+	/**
+	 * check whether L(A) is included in L(B), returns null if no backend
+	 * decides it in time
+	 * */
+	public IsIncluded checkInclusion(Alphabet alphabet, NBA A, NBA B
+			, FiniteAutomaton rA, FiniteAutomaton rB) {
+		List<Backend> applicable = new ArrayList<>();
+		for(Backend backend : backends) {
+			if(backend.isApplicable(A, B)) {
+				applicable.add(backend);
+			}
+		}
+		// no backend wants it, then all of them have to try
+		if(applicable.isEmpty()) {
+			applicable.addAll(backends);
+		}
+		CompletionService<IsIncluded> service = new ExecutorCompletionService<>(executor);
+		Map<Future<IsIncluded>, Backend> running = new HashMap<>();
+		Map<Future<IsIncluded>, Long> deadlines = new HashMap<>();
+		final long start = System.currentTimeMillis();
+		for(Backend backend : applicable) {
+			Future<IsIncluded> future = service.submit(backend.getChecker(alphabet, A, B, rA, rB));
+			running.put(future, backend);
+			deadlines.put(future, backend.getTimeout() > 0 ? start + backend.getTimeout() : Long.MAX_VALUE);
+		}
+		IsIncluded included = null;
+		try {
+			while(included == null && ! running.isEmpty()) {
+				long deadline = Long.MAX_VALUE;
+				for(long time : deadlines.values()) {
+					deadline = Math.min(deadline, time);
+				}
+				Future<IsIncluded> future = deadline == Long.MAX_VALUE ? service.take()
+						: service.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if(future == null) {
+					cancelExpired(running, deadlines);
+					continue;
+				}
+				Backend backend = running.remove(future);
+				deadlines.remove(future);
+				if(backend == null) continue; // already cancelled
+				try {
+					IsIncluded result = future.get();
+					if(result.isIncluded() != null) {
+						included = result;
+						options.stats.addInclusionWinner(backend.getName());
+						options.log.println(backend.getName() + " decided the inclusion in "
+							 + (System.currentTimeMillis() - start) + " (ms)");
+					}
+				} catch (ExecutionException e) {
+					options.log.err(backend.getName() + " failed: " + e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			// we are cancelled as well
+			Thread.currentThread().interrupt();
+		} finally {
+			for(Future<IsIncluded> future : running.keySet()) {
+				future.cancel(true);
+			}
+		}
+		return included;
+	}
+	
+	private void cancelExpired(Map<Future<IsIncluded>, Backend> running, Map<Future<IsIncluded>, Long> deadlines) {
+		final long now = System.currentTimeMillis();
+		List<Future<IsIncluded>> expired = new ArrayList<>();
+		for(Map.Entry<Future<IsIncluded>, Long> entry : deadlines.entrySet()) {
+			if(entry.getValue() <= now) {
+				expired.add(entry.getKey());
+			}
+		}
+		for(Future<IsIncluded> future : expired) {
+			future.cancel(true);
+			options.log.println(running.remove(future).getName() + " timed out");
+			deadlines.remove(future);
+		}
+	}
+
+}
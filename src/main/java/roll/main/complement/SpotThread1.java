@@ -2,11 +2,10 @@ package roll.main.complement;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 import roll.automata.NBA;
@@ -18,26 +17,24 @@ import roll.util.UtilHelper;
 import roll.words.Alphabet;
 import roll.words.Word;
 
-public class SpotThread1 extends Thread implements IsIncluded {
+/**
+ * use the spotj command to check inclusion of two Buchi automata, the
+ * process is destroyed once the calling thread is interrupted
+ * */
+public class SpotThread1 implements Callable<IsIncluded>, IsIncluded {
 	Boolean result = null;
 	
 	NBA spotA;
 	NBA spotB;
 	
-	Process process;
-	
-	boolean flag;
-	
 	Options options;
 	
 	Pair<Word, Word> counterexample;
-	boolean write = false;
-	boolean entered = false;
+	
 	public SpotThread1(NBA BFC, NBA B, Options options) {
 		this.spotA = BFC;
 		this.spotB = B;
 		this.options = options;
-		this.flag = true;
 	}
 	
 	@Override
@@ -46,80 +43,46 @@ public class SpotThread1 extends Thread implements IsIncluded {
 	}
 	
 	@Override
-	public void run() {
-		String command = "spotj ";
-		File fileA = new File("/tmp/A.hoa");
-        File fileB = new File("/tmp/B.hoa");
-    	int numAp = UtilHelper.getNumBits(spotB.getAlphabetSize());
-    	synchronized(this) {
-        	// must execute part once entered ----- start------------
-        	try {
-    			Function<Integer, String> apList = x -> "a" + x;
-    			NBAInclusionCheckTool.outputHOAStream(spotA, new PrintStream(new FileOutputStream(fileA)), numAp, apList);
-    			NBAInclusionCheckTool.outputHOAStream(spotB, new PrintStream(new FileOutputStream(fileB)), numAp, apList);
-    		} catch (FileNotFoundException e) {
-    			e.printStackTrace();
-    		}
-        	// must execute part once entered -----------------
-    		// entered a point where this thread can be terminated
-            update();
-    	}
-    	
-        final Runtime rt = Runtime.getRuntime();
-        // check whether it is included in A.hoa
-        command = command + fileA.getAbsolutePath() + " " + fileB.getAbsolutePath();
-        options.log.println(command);
-        process = null;
-        try {
-        	if(flag) {
-//        		System.out.println("exe...");
-        		process = rt.exec(command);
-        	}
-//    		System.out.println("Wait...");
-        	while(flag && process != null && process.isAlive()) {
-        		// do nothing here
-        	}
-//        	System.out.println("Finished...");
-        } catch (IOException e1) {
-            e1.printStackTrace();
-        }
-        write = true;
-        if(flag) {
-        	final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line = null;
-            try {
-                while (flag && (line = reader.readLine()) != null ) {
-                    if (line.contains("Included.")) {
-                        result = true;
-                        options.log.println("Inclusion has been proved by SPOT");
-                    }else if(line.contains("Not included")) {
-                    	result = false;
-                    	// parse result
-                        options.log.println("A counterexample has been found by SPOT");
-                    	counterexample = parse(spotB.getAlphabet(), line, numAp, x -> Integer.parseInt(x.substring(1)));
-                    }
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-	}
-	
-//	@SuppressWarnings("deprecation")
-	@Override
-	public void interrupt() {
-		flag = false;
-//		System.out.println("interrupt" + write + ", " + entered);
-		while(! write && entered) {
-			// if it entered run and has not finished output yet, then wait
+	public IsIncluded call() throws Exception {
+		// several checks may run at the same time, each one has its own files
+		File fileA = File.createTempFile("roll-A", ".hoa");
+		File fileB = File.createTempFile("roll-B", ".hoa");
+		int numAp = UtilHelper.getNumBits(spotB.getAlphabetSize());
+		Function<Integer, String> apList = x -> "a" + x;
+		try(PrintStream outA = new PrintStream(new FileOutputStream(fileA));
+			PrintStream outB = new PrintStream(new FileOutputStream(fileB))) {
+			NBAInclusionCheckTool.outputHOAStream(spotA, outA, numAp, apList);
+			NBAInclusionCheckTool.outputHOAStream(spotB, outB, numAp, apList);
 		}
-		if(process != null) {
-			process.destroyForcibly();
+		// check whether it is included in A.hoa
+		String command = "spotj " + fileA.getAbsolutePath() + " " + fileB.getAbsolutePath();
+		options.log.println(command);
+		Process process = null;
+		try {
+			process = Runtime.getRuntime().exec(command);
+			// the output of spotj is short, and waiting can be interrupted
+			process.waitFor();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+			String line = null;
+			while ((line = reader.readLine()) != null) {
+				if (line.contains("Included.")) {
+					result = true;
+					options.log.println("Inclusion has been proved by SPOT");
+				}else if(line.contains("Not included")) {
+					result = false;
+					// parse result
+					options.log.println("A counterexample has been found by SPOT");
+					counterexample = parse(spotB.getAlphabet(), line, numAp, x -> Integer.parseInt(x.substring(1)));
+				}
+			}
+		}finally {
+			if(process != null) {
+				process.destroyForcibly();
+			}
+			fileA.delete();
+			fileB.delete();
 		}
-//		System.out.println("interrupt");
-		super.interrupt();
-//		this.stop();
-//		System.out.println("stop");
+		return this;
 	}
 	
 	protected Pair<Word, Word> parse(Alphabet alphabet, String counterexample, int numAp, Function<String, Integer> apList) {
@@ -175,12 +138,4 @@ public class SpotThread1 extends Thread implements IsIncluded {
 	public Pair<Word, Word> getCounterexample() {
 		return counterexample;
 	}
-	
-	/**
-	 * when updating this two variables, no other threads should update them
-	 * */
-	private synchronized void update() {
-		this.entered = true;
-		this.write = true;
-	}
 }
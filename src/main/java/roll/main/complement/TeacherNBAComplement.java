@@ -19,11 +19,11 @@ package roll.main.complement;
 import java.util.List;
 
 import automata.FiniteAutomaton;
-import dk.brics.automaton.Automaton;
 import mainfiles.RABIT;
 import oracle.IntersectionCheck;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
@@ -56,6 +56,8 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
     private final NBA B;
     private final Options options;
     private final Alphabet alphabet;
+    // the under Buechi automata of the hypotheses
+    private final FDFA2NBA nbaBuilder = new FDFA2NBA(true, false);
     
     public TeacherNBAComplement(Options options, NBA nba) {
         assert options != null && nba != null;
@@ -72,8 +74,8 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
         boolean result = UtilComplement.answerMembershipQuery(B, query);
         
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.timeOfMembershipQuery.add(timer.getTimeElapsed());
+        options.stats.numOfMembershipQuery.increment(); 
         return new HashableValueBoolean(!result); // reverse the result for Buechi automaton
     }
     
@@ -97,8 +99,7 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
         Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to under Buchi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = nbaBuilder.buildNBA(hypothesis);
         
         // record the constructed Buchi automaton
         options.stats.hypothesis = BF;
@@ -132,8 +133,7 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
             isEq = false;
             isInTarget = true;
         } else {
-            Automaton dkBFC = FDFAOperations.buildNegNBA(hypothesis);
-            NBA BFC = NBAOperations.fromDkNBA(dkBFC, alphabet);
+            NBA BFC = FDFAOperations.buildNegNBA(hypothesis);
             options.log.println("Checking the intersection for B(F) (" + BF.getStateSize() + ") and B(F^c) ("
                     + BFC.getStateSize() + ")...");
             ++this.numInterBFCandBF;
@@ -3,13 +3,9 @@ package roll.main.complement;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import automata.FAState;
 import automata.FiniteAutomaton;
@@ -18,7 +14,7 @@ import roll.automata.NBA;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
 import roll.oracle.nba.rabit.RabitThread;
-import roll.oracle.nba.rabit.RabitThread3;
+import roll.oracle.nba.rabit.UtilRABIT;
 import roll.oracle.nba.spot.SpotThread3;
 import roll.query.Query;
 import roll.table.HashableValue;
@@ -96,47 +92,32 @@ public class UtilComplement {
 			, Alphabet alphabet, NBA A, NBA B, FiniteAutomaton rA, FiniteAutomaton rB) {
 		IsIncluded included = null;
 		if(options.parallel) {
-			final int size = 45;
-			boolean bigEnough = A.getStateSize() + B.getStateSize() > size;
-			SpotThread1 spotThread = null;
-			if(bigEnough) {
-				spotThread = new SpotThread1(A, B, options);
+			included = InclusionPortfolio.getDefault(options).checkInclusion(alphabet, A, B, rA, rB);
+			// cancelled by the caller
+			if(Thread.currentThread().isInterrupted()) {
+				return included;
 			}
-			RabitThread rabitThread = new RabitThread(alphabet, rA, rB, options);
-			if(bigEnough) {
-				spotThread.start();
-			}			
-			rabitThread.start();
-			while(true) {
-				if(bigEnough && ! spotThread.isAlive()) {
-					included = spotThread;
-					break;
-				}
-				if(! rabitThread.isAlive()) {
-					included = rabitThread;
-					break;
-				}
+			// no backend decided it in time, RABIT may have changed rA and rB
+			if(included == null) {
+				rA = UtilRABIT.toRABITNBA(A);
+				rB = UtilRABIT.toRABITNBA(B);
 			}
-//			System.out.println("Hi " + (bigEnough ? spotThread.isAlive() : "") + ", " + rabitThread.isAlive());
-			assert spotThread.result != null || rabitThread.result != null;
-			if(bigEnough && !spotThread.isAlive() && !rabitThread.isAlive()) {
-				assert spotThread.result == rabitThread.result;
-			}
-			rabitThread.interrupt();
-			if(bigEnough) {
-				spotThread.interrupt();
-			}
-		}else {
+		}
+		if(included == null) {
 			Callable<IsIncluded> caller = null;
 			if(options.spot) {
 				SpotThread3 spotThread = new SpotThread3(A, B, options);
 				caller = spotThread;
 			}else {
-				RabitThread3 rabitThread = new RabitThread3(alphabet, rA, rB, options);
-				caller = rabitThread;
+				// RABIT is stopped if the calling thread is interrupted
+				final FiniteAutomaton rabitA = rA, rabitB = rB;
+				caller = () -> RabitThread.check(alphabet, rabitA, rabitB, options);
 			}
 			try {
 				included = caller.call();
+			} catch (InterruptedException e) {
+				// cancelled by the caller
+				Thread.currentThread().interrupt();
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -166,32 +147,5 @@ public class UtilComplement {
 		
 		return included;
 	}
-	
-	private static IsIncluded getAnyOne(Options options
-			, Alphabet alphabet, NBA A, NBA B, FiniteAutomaton rA, FiniteAutomaton rB) {
-		final int size = 45;
-		boolean bigEnough = A.getStateSize() + B.getStateSize() > size;
-		SpotThread3 spotThread = null;
-		if(bigEnough) {
-			spotThread = new SpotThread3(A, B, options);
-		}
-		RabitThread3 rabitThread = new RabitThread3(alphabet, rA, rB, options);
-		ExecutorService executor = Executors.newWorkStealingPool();
-		List<Callable<IsIncluded>> callables = new ArrayList<>(2);
-		callables.add(rabitThread);
-		if(bigEnough) {
-			callables.add(spotThread);
-		}
-//		Runtime rt = Runtime.getRuntime();
-//		Process process = rt.exec(cmdarray);
-		
-		IsIncluded result = null;
-		try {
-			result = executor.invokeAny(callables);
-		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
-		}
-		return result;
-	}
 
 }
@@ -29,6 +29,7 @@ import roll.learner.nba.lomega.translator.Translator;
 import roll.learner.nba.lomega.translator.TranslatorFDFAUnder;
 import roll.main.Options;
 import roll.main.complement.UtilComplement;
+import roll.oracle.MembershipOracleCache;
 import roll.oracle.nba.sampler.SamplerIndexedMonteCarlo;
 import roll.parser.PairParser;
 import roll.parser.UtilParser;
@@ -213,7 +214,8 @@ public class NBAInclusionCheck {
         options.log.println("Start using learning algorithm to prove inclusion...");
         // learning algorithm
         TeacherNBAInclusion teacher = new TeacherNBAInclusion(options, parser, A, B);
-        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, alphabet, teacher);
+        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, alphabet
+                , MembershipOracleCache.wrap(options, teacher, true));
         // learning loop
         options.log.println("Start learning...");
         long t = timer.getCurrentTime();
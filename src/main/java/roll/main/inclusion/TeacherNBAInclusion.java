@@ -17,10 +17,10 @@
 package roll.main.inclusion;
 
 import automata.FiniteAutomaton;
-import dk.brics.automaton.Automaton;
 import mainfiles.RABIT;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAIntersectionCheck;
 import roll.automata.operations.NBAOperations;
@@ -51,6 +51,8 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
     private final NBA B;
     private final FiniteAutomaton rB;
     private final PairParser parser;
+    // the under Buechi automata of the hypotheses
+    private final FDFA2NBA nbaBuilder = new FDFA2NBA(true, false);
     
     public TeacherNBAInclusion(Options options, PairParser parser, NBA A, NBA B) {
         assert options != null && parser != null && A != null && B != null;
@@ -84,8 +86,8 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
         }
         
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.timeOfMembershipQuery.add(timer.getTimeElapsed());
+        options.stats.numOfMembershipQuery.increment(); 
         if(terminate) {
             NBAInclusionCheck.printCounterexample(options, parser, new Pair<>(prefix, suffix));
             options.log.println("Learning completed...");
@@ -111,8 +113,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
         Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to Under Buechi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = nbaBuilder.buildNBA(hypothesis);
         ++ this.numInterBandBF;
         options.log.println("Checking the intersection of BF (" + BF.getStateSize() + ") and B ("+ B.getStateSize() + ")...");
         long t = timer.getCurrentTime();
@@ -155,8 +156,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
                 NBAInclusionCheck.printCounterexample(options, parser, new Pair<>(prefix, suffix));
 
             }else {
-                Automaton dkBFC = FDFAOperations.buildNegNBA(hypothesis);
-                NBA BFC = NBAOperations.fromDkNBA(dkBFC, alphabet);
+                NBA BFC = FDFAOperations.buildNegNBA(hypothesis);
                 options.log.println("Checking the intersection for B(F) (" + BF.getStateSize() + ") and B(F^c) ("+ BFC.getStateSize() + ")...");
                 ++ this.numInterBFCandBF;
                 t = timer.getCurrentTime();
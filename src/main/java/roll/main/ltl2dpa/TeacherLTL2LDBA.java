@@ -3,10 +3,10 @@ package roll.main.ltl2dpa;
 import java.util.List;
 
 import automata.FiniteAutomaton;
-import dk.brics.automaton.Automaton;
 import oracle.IntersectionCheck;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
@@ -39,6 +39,8 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
     private final Alphabet alphabet;
     private final NBA posA;
     private final NBA negB;
+    // the under Buechi automata of the hypotheses
+    private final FDFA2NBA nbaBuilder = new FDFA2NBA(true, false);
     
     public TeacherLTL2LDBA(Options options, String ltl) {
         assert options != null ;
@@ -60,8 +62,8 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
         timer.start();
         boolean result = UtilComplement.answerMembershipQuery(posA, query);
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.timeOfMembershipQuery.add(timer.getTimeElapsed());
+        options.stats.numOfMembershipQuery.increment(); 
         return new HashableValueBoolean(result); 
 	}
 	
@@ -89,8 +91,7 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
 		Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to under Buchi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = nbaBuilder.buildNBA(hypothesis);
         
         // record the constructed Buchi automaton
         options.stats.hypothesis = BF;
@@ -122,8 +123,7 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
             isEq = false;
             isInTarget = true;
         } else {
-            Automaton dkBFC = FDFAOperations.buildNegNBA(hypothesis);
-            NBA BFC = NBAOperations.fromDkNBA(dkBFC, alphabet);
+            NBA BFC = FDFAOperations.buildNegNBA(hypothesis);
             options.log.println("Checking the intersection for A (" + posA.getStateSize() + ") and B(F^c) ("
                     + BFC.getStateSize() + ")...");
             ++this.numInterBFCandA;
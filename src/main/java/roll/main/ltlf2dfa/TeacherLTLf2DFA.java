@@ -1,5 +1,9 @@
 package roll.main.ltlf2dfa;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import roll.automata.DFA;
 import roll.automata.NBA;
 import roll.main.Options;
@@ -8,7 +12,10 @@ import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
 import roll.table.HashableValueBoolean;
+import roll.util.IntIterator;
 import roll.util.Pair;
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -37,6 +44,63 @@ public class TeacherLTLf2DFA extends TeacherAbstract<DFA> {
         boolean answer = posA.getSuccessors(word).overlap(posA.getFinalStates());
         return new HashableValueBoolean(answer);
 	}
+	
+	// words are visited in lexicographic order, so the state sets reached
+	// by the common prefix with the previous word are reused
+	@Override
+	protected List<HashableValue> checkMemberships(List<Query<HashableValue>> queries) {
+		Word[] words = new Word[queries.size()];
+		Integer[] order = new Integer[queries.size()];
+		for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+			words[queryNr] = queries.get(queryNr).getQueriedWord();
+			order[queryNr] = queryNr;
+		}
+		Arrays.sort(order, (i, j) -> compareLexicographic(words[i], words[j]));
+		HashableValue[] answers = new HashableValue[queries.size()];
+		// reached.get(k) is the set of states reached by the first k letters of prev
+		List<ISet> reached = new ArrayList<>();
+		ISet init = UtilISet.newISet();
+		init.set(posA.getInitialState());
+		reached.add(init);
+		Word prev = null;
+		for(final int queryNr : order) {
+			Word word = words[queryNr];
+			int common = prev == null ? 0 : getCommonPrefixLength(prev, word);
+			while(reached.size() > common + 1) {
+				reached.remove(reached.size() - 1);
+			}
+			for(int letterNr = common; letterNr < word.length(); letterNr ++) {
+				ISet curr = reached.get(letterNr);
+				ISet succs = UtilISet.newISet();
+				IntIterator iter = curr.intIterator();
+				while(iter.hasNext()) {
+					succs.or(posA.getSuccessors(iter.nextInt(), word.getLetter(letterNr)));
+				}
+				reached.add(succs);
+			}
+			boolean answer = reached.get(word.length()).overlap(posA.getFinalStates());
+			answers[queryNr] = new HashableValueBoolean(answer);
+			prev = word;
+		}
+		return Arrays.asList(answers);
+	}
+	
+	private static int getCommonPrefixLength(Word fst, Word snd) {
+		int length = Math.min(fst.length(), snd.length());
+		int index = 0;
+		while(index < length && fst.getLetter(index) == snd.getLetter(index)) {
+			index ++;
+		}
+		return index;
+	}
+	
+	private static int compareLexicographic(Word fst, Word snd) {
+		int common = getCommonPrefixLength(fst, snd);
+		if(common < fst.length() && common < snd.length()) {
+			return Integer.compare(fst.getLetter(common), snd.getLetter(common));
+		}
+		return Integer.compare(fst.length(), snd.length());
+	}
 
 	@Override
 	protected Query<HashableValue> checkEquivalence(DFA hypothesis) {
@@ -17,6 +17,7 @@
 package roll.oracle;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import roll.query.Query;
@@ -29,13 +30,11 @@ public interface MembershipOracle<O> {
 	O answerMembershipQuery(Query<O> query);
 	
 	default List<O> answerMembershipQueries(@SuppressWarnings("unchecked") Query<O>... queries) {
-		List<O> answers = new ArrayList<>();
-		for(Query<O> query : queries) {
-			answers.add(answerMembershipQuery(query));
-		}
-		return answers;
+		return answerMembershipQueries(Arrays.asList(queries));
 	}
 	
+	// answers of a batch of queries in the same order, oracles may override
+	// it to share the work among the queries or to ask them in one round trip
 	default List<O> answerMembershipQueries(List<Query<O>> queries) {
 		List<O> answers = new ArrayList<>();
 		for(Query<O> query : queries) {
@@ -0,0 +1,199 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+package roll.oracle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import roll.main.Options;
+import roll.query.Query;
+import roll.table.HashableValue;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * Membership oracle which remembers the answers of the underlying oracle.
+ * 
+ * For omega-words, the query (u, v) denotes u.v^w and is keyed by the normal
+ * form of Alphabet.getNormalForm, i.e., the shortest stem with the primitive
+ * period, so different factorizations of the same word share one entry.
+ * For finite words, the key is the queried word u.v.
+ * The least recently used entries are dropped once the capacity is reached.
+ * 
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class MembershipOracleCache implements MembershipOracle<HashableValue> {
+    
+    private final Options options;
+    private final MembershipOracle<HashableValue> membershipOracle;
+    private final boolean omega;
+    private final Map<Key, HashableValue> cache;
+    
+    public MembershipOracleCache(Options options, MembershipOracle<HashableValue> membershipOracle
+            , boolean omega, int capacity) {
+        assert capacity > 0;
+        this.options = options;
+        this.membershipOracle = membershipOracle;
+        this.omega = omega;
+        this.cache = new LinkedHashMap<Key, HashableValue>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, HashableValue> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    // wrap the oracle if caching is enabled in the options
+    public static MembershipOracle<HashableValue> wrap(Options options
+            , MembershipOracle<HashableValue> membershipOracle, boolean omega) {
+        if(options.membershipCacheSize <= 0
+        || membershipOracle instanceof MembershipOracleCache) {
+            return membershipOracle;
+        }
+        return new MembershipOracleCache(options, membershipOracle, omega, options.membershipCacheSize);
+    }
+
+    @Override
+    public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+        Key key = getKey(query);
+        HashableValue answer;
+        synchronized(cache) {
+            answer = cache.get(key);
+        }
+        if(answer != null) {
+            options.stats.numOfMembershipCacheHit.increment();
+            return answer;
+        }
+        options.stats.numOfMembershipCacheMiss.increment();
+        answer = membershipOracle.answerMembershipQuery(query);
+        synchronized(cache) {
+            cache.put(key, answer);
+        }
+        return answer;
+    }
+    
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        HashableValue[] answers = new HashableValue[queries.size()];
+        Key[] keys = new Key[queries.size()];
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            keys[queryNr] = getKey(queries.get(queryNr));
+        }
+        synchronized(cache) {
+            for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+                answers[queryNr] = cache.get(keys[queryNr]);
+            }
+        }
+        // the missed queries are asked in one batch, each word only once
+        List<Query<HashableValue>> missQueries = new ArrayList<>();
+        List<Key> missKeys = new ArrayList<>();
+        Map<Key, Integer> missIndices = new HashMap<>();
+        int[] missNrs = new int[queries.size()];
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            if(answers[queryNr] != null) {
+                options.stats.numOfMembershipCacheHit.increment();
+                continue;
+            }
+            Integer missNr = missIndices.get(keys[queryNr]);
+            if(missNr == null) {
+                options.stats.numOfMembershipCacheMiss.increment();
+                missNr = missQueries.size();
+                missIndices.put(keys[queryNr], missNr);
+                missQueries.add(queries.get(queryNr));
+                missKeys.add(keys[queryNr]);
+            }else {
+                options.stats.numOfMembershipCacheHit.increment();
+            }
+            missNrs[queryNr] = missNr;
+        }
+        if(missQueries.isEmpty()) {
+            return Arrays.asList(answers);
+        }
+        List<HashableValue> missAnswers = membershipOracle.answerMembershipQueries(missQueries);
+        synchronized(cache) {
+            for(int missNr = 0; missNr < missQueries.size(); missNr ++) {
+                cache.put(missKeys.get(missNr), missAnswers.get(missNr));
+            }
+        }
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            if(answers[queryNr] == null) {
+                answers[queryNr] = missAnswers.get(missNrs[queryNr]);
+            }
+        }
+        return Arrays.asList(answers);
+    }
+    
+    public int size() {
+        synchronized(cache) {
+            return cache.size();
+        }
+    }
+    
+    public void clear() {
+        synchronized(cache) {
+            cache.clear();
+        }
+    }
+    
+    private Key getKey(Query<HashableValue> query) {
+        Word prefix = query.getPrefix();
+        Word suffix = query.getSuffix();
+        if(! omega) {
+            return new Key(query.getQueriedWord(), suffix.getEmptyWord());
+        }
+        // empty period is not an omega-word, keep it as it is
+        if(suffix.isEmpty()) {
+            return new Key(prefix, suffix);
+        }
+        Pair<Word, Word> normalForm = Alphabet.getNormalForm(prefix, suffix);
+        return new Key(normalForm.getLeft(), normalForm.getRight());
+    }
+    
+    private static class Key {
+        private final Word stem;
+        private final Word loop;
+        private final int hashCode;
+        
+        Key(Word stem, Word loop) {
+            this.stem = stem;
+            this.loop = loop;
+            this.hashCode = 31 * stem.hashCode() + loop.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(! (obj instanceof Key)) return false;
+            Key other = (Key)obj;
+            return hashCode == other.hashCode
+                && stem.equals(other.stem)
+                && loop.equals(other.loop);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
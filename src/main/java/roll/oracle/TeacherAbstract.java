@@ -16,6 +16,14 @@
 
 package roll.oracle;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import roll.main.Options;
 import roll.query.Query;
 import roll.table.HashableValue;
@@ -27,24 +35,91 @@ import roll.util.Timer;
 
 public abstract class TeacherAbstract<M> implements Teacher<M, Query<HashableValue>, HashableValue> {
     
+    // all teachers share one pool per number of threads
+    private static final Map<Integer, ForkJoinPool> pools = new ConcurrentHashMap<>();
+    
     protected final Options options;
     
     public TeacherAbstract(Options options) {
         this.options = options;
     }
     
+    // must be safe to call from several threads if options.membershipThreads > 1
     protected abstract HashableValue checkMembership(Query<HashableValue> query);
     
+    // teachers may share the work among the queries of a batch
+    protected List<HashableValue> checkMemberships(List<Query<HashableValue>> queries) {
+        if(options.membershipThreads > 1 && queries.size() > 1) {
+            return checkMembershipsInParallel(queries);
+        }
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        for(Query<HashableValue> query : queries) {
+            answers.add(checkMembership(query));
+        }
+        return answers;
+    }
+    
+    // the i-th answer is still the answer of the i-th query
+    private List<HashableValue> checkMembershipsInParallel(List<Query<HashableValue>> queries) {
+        HashableValue[] answers = new HashableValue[queries.size()];
+        int grain = Math.max(1, queries.size() / (4 * options.membershipThreads));
+        ForkJoinPool pool = pools.computeIfAbsent(options.membershipThreads, ForkJoinPool::new);
+        pool.invoke(new MembershipTask(queries, answers, 0, queries.size(), grain));
+        return Arrays.asList(answers);
+    }
+    
+    private class MembershipTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Query<HashableValue>> queries;
+        private final HashableValue[] answers;
+        private final int from;
+        private final int to;
+        private final int grain;
+        
+        MembershipTask(List<Query<HashableValue>> queries, HashableValue[] answers
+                , int from, int to, int grain) {
+            this.queries = queries;
+            this.answers = answers;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain) {
+                for(int queryNr = from; queryNr < to; queryNr ++) {
+                    answers[queryNr] = checkMembership(queries.get(queryNr));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MembershipTask(queries, answers, from, middle, grain)
+                    , new MembershipTask(queries, answers, middle, to, grain));
+        }
+    }
+    
     @Override
     public HashableValue answerMembershipQuery(Query<HashableValue> query) {
         Timer timer = new Timer();
         timer.start();
         HashableValue answer = checkMembership(query);
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        options.stats.numOfMembershipQuery ++;
+        options.stats.timeOfMembershipQuery.add(timer.getTimeElapsed());
+        options.stats.numOfMembershipQuery.increment();
         return answer;
     }
+    
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        Timer timer = new Timer();
+        timer.start();
+        List<HashableValue> answers = checkMemberships(queries);
+        timer.stop();
+        options.stats.timeOfMembershipQuery.add(timer.getTimeElapsed());
+        options.stats.numOfMembershipQuery.add(queries.size());
+        return answers;
+    }
 
     protected abstract Query<HashableValue> checkEquivalence(M hypothesis);
     
@@ -47,9 +47,9 @@ public class TeacherFDFADK extends TeacherAbstract<FDFA> {
     
     @Override
     protected Query<HashableValue> checkEquivalence(FDFA hypothesis) {
-        Automaton hypo = FDFAOperations.buildDOne(hypothesis);
+        Automaton hypo = hypothesis.getDOne();
 //        System.out.println("hypo:\n " + hypo.toDot());
-        Automaton target = FDFAOperations.buildDTwo(fdfa);
+        Automaton target = fdfa.getDTwo();
 //        System.out.println("target:\n " + target.toDot());
         Automaton temp = hypo.intersection(target);
         String ce = temp.getShortestExample(true);
@@ -61,9 +61,9 @@ public class TeacherFDFADK extends TeacherAbstract<FDFA> {
             ceQuery.answerQuery(new HashableValueBoolean(false));
             return ceQuery;
         }
-        hypo = FDFAOperations.buildDTwo(hypothesis);
+        hypo = hypothesis.getDTwo();
 //        System.out.println("hypo:\n " + hypo.toDot());
-        target = FDFAOperations.buildDOne(fdfa);
+        target = fdfa.getDOne();
 //        System.out.println("target:\n " + target.toDot());
         temp = hypo.intersection(target);
         ce = temp.getShortestExample(true);
@@ -16,6 +16,11 @@
 
 package roll.oracle.nba;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import roll.automata.NBA;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
@@ -23,6 +28,8 @@ import roll.oracle.TeacherAbstract;
 import roll.query.Query;
 import roll.table.HashableValue;
 import roll.table.HashableValueBoolean;
+import roll.util.Pair;
+import roll.words.Alphabet;
 import roll.words.Word;
 
 /**
@@ -44,5 +51,33 @@ public abstract class TeacherNBA extends TeacherAbstract<NBA> {
         boolean answer = NBAOperations.accepts(target, prefix, suffix);
         return new HashableValueBoolean(answer);
     }
+    
+    // the same omega-word is only checked once in a batch
+    @Override
+    protected List<HashableValue> checkMemberships(List<Query<HashableValue>> queries) {
+        Map<Pair<Word, Word>, Integer> indices = new HashMap<>();
+        List<Query<HashableValue>> distinctQueries = new ArrayList<>();
+        int[] distinctNrs = new int[queries.size()];
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            Query<HashableValue> query = queries.get(queryNr);
+            Word prefix = query.getPrefix();
+            Word suffix = query.getSuffix();
+            Pair<Word, Word> word = suffix.isEmpty() ? new Pair<>(prefix, suffix)
+                    : Alphabet.getNormalForm(prefix, suffix);
+            Integer distinctNr = indices.get(word);
+            if(distinctNr == null) {
+                distinctNr = distinctQueries.size();
+                indices.put(word, distinctNr);
+                distinctQueries.add(query);
+            }
+            distinctNrs[queryNr] = distinctNr;
+        }
+        List<HashableValue> distinctAnswers = super.checkMemberships(distinctQueries);
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            answers.add(distinctAnswers.get(distinctNrs[queryNr]));
+        }
+        return answers;
+    }
 
 }
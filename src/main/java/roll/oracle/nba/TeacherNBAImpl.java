@@ -1,7 +1,20 @@
 package roll.oracle.nba;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import automata.FiniteAutomaton;
 import roll.automata.NBA;
+import roll.automata.operations.NBAOperations;
 import roll.main.Options;
 import roll.main.complement.IsIncluded;
 import roll.main.complement.UtilComplement;
@@ -15,13 +28,19 @@ import roll.words.Word;
 
 public class TeacherNBAImpl extends TeacherNBA {
 	
+	// the two inclusion checks of an equivalence query run at the same time
+	private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable);
+		thread.setDaemon(true);
+		return thread;
+	});
+	
 	public TeacherNBAImpl(Options options, NBA target) {
 		super(options, target);
 	}
 
 	@Override
 	protected Query<HashableValue> checkEquivalence(NBA hypothesis) {
-		FiniteAutomaton rA = null, rB = null;
 		NBA A, B;
 		if(target.getStateSize() > hypothesis.getStateSize()) {
             A = target;
@@ -31,25 +50,92 @@ public class TeacherNBAImpl extends TeacherNBA {
             B = target;
         }
 		
-		if(options.parallel || !options.spot) {
-			rA = UtilRABIT.toRABITNBA(A);
-			rB = UtilRABIT.toRABITNBA(B);
+		// check L(A) <= L(B) and L(B) <= L(A) concurrently
+		CompletionService<IsIncluded> service = new ExecutorCompletionService<>(executor);
+		Map<Future<IsIncluded>, Pair<NBA, NBA>> checks = new HashMap<>();
+		List<Pair<NBA, NBA>> directions = new ArrayList<>(2);
+		directions.add(new Pair<>(A, B));
+		directions.add(new Pair<>(B, A));
+		// counted down once a check has really terminated, not when it is cancelled
+		CountDownLatch terminated = new CountDownLatch(directions.size());
+		for(Pair<NBA, NBA> check : directions) {
+			checks.put(service.submit(() -> {
+				try {
+					return checkInclusion(check.getLeft(), check.getRight());
+				} finally {
+					terminated.countDown();
+				}
+			}), check);
 		}
-		IsIncluded included = UtilComplement.checkInclusion(options, target.getAlphabet(), A, B, rA, rB);
-		Pair<Word, Word> result = included.getCounterexample();
-        Query<HashableValue> ceQuery = null;
-        if(result != null) {
-            ceQuery = new QuerySimple<>(result.getLeft(), result.getRight());
-            ceQuery.answerQuery(new HashableValueBoolean(false));
-            return ceQuery;
-        }
-        // RABIT may change rA and rB, so copy them again
-		if(options.parallel || !options.spot) {
-			rA = UtilRABIT.toRABITNBA(A);
-			rB = UtilRABIT.toRABITNBA(B);
+		List<Pair<NBA, NBA>> undecided = new ArrayList<>();
+		Pair<Word, Word> result = null;
+		try {
+			while(result == null && ! checks.isEmpty()) {
+				Future<IsIncluded> future = service.take();
+				Pair<NBA, NBA> check = checks.remove(future);
+				IsIncluded included;
+				try {
+					included = future.get();
+				} catch (ExecutionException e) {
+					options.log.err("Inclusion check failed: " + e.getCause());
+					undecided.add(check);
+					continue;
+				}
+				if(included == null) {
+					undecided.add(check);
+					continue;
+				}
+				Pair<Word, Word> counterexample = included.getCounterexample();
+				if(counterexample == null) continue;
+				// RABIT keeps its last counterexample in static fields, so it may
+				// come from the other check, which is why we validate it here
+				if(isCounterexample(A, B, counterexample)) {
+					result = counterexample;
+				}else {
+					undecided.add(check);
+				}
+			}
+		} catch (InterruptedException e) {
+			options.log.err("Equivalence check interrupted");
+			Thread.currentThread().interrupt();
+			undecided.addAll(checks.values());
+		} finally {
+			// the first counterexample wins, the other check is interrupted, which
+			// stops the RABIT thread and destroys the Spot process of -par; only
+			// the in-process SpotJ call of SpotThread3 cannot be stopped
+			for(Future<IsIncluded> future : checks.keySet()) {
+				future.cancel(true);
+			}
+		}
+		if(result == null && ! undecided.isEmpty()) {
+			// a check still running could overwrite the counterexample of RABIT
+			try {
+				terminated.await();
+			} catch (InterruptedException e) {
+				options.log.err("Equivalence check interrupted");
+				Thread.currentThread().interrupt();
+			}
 		}
-        included = UtilComplement.checkInclusion(options, target.getAlphabet(), B, A, rB, rA);
-        result = included.getCounterexample();
+		// check again one after another
+		for(Pair<NBA, NBA> check : undecided) {
+			if(result != null) break;
+			if(Thread.currentThread().isInterrupted()) {
+				throw new UnsupportedOperationException("Equivalence check interrupted in TeacherNBAImpl");
+			}
+			IsIncluded included = checkInclusion(check.getLeft(), check.getRight());
+			if(included == null || included.isIncluded() == null) {
+				throw new UnsupportedOperationException("Inclusion check failed in TeacherNBAImpl");
+			}
+			Pair<Word, Word> counterexample = included.getCounterexample();
+			if(counterexample != null && ! isCounterexample(A, B, counterexample)) {
+				throw new UnsupportedOperationException("Invalid counterexample in TeacherNBAImpl: "
+					+ counterexample.getLeft().toStringWithAlphabet() + ", "
+					+ counterexample.getRight().toStringWithAlphabet());
+			}
+			result = counterexample;
+		}
+		
+        Query<HashableValue> ceQuery = null;
         if(result != null) {
             ceQuery = new QuerySimple<>(result.getLeft(), result.getRight());
             ceQuery.answerQuery(new HashableValueBoolean(false));
@@ -60,5 +146,22 @@ public class TeacherNBAImpl extends TeacherNBA {
         ceQuery.answerQuery(new HashableValueBoolean(true));
         return ceQuery;
 	}
+	
+	private IsIncluded checkInclusion(NBA A, NBA B) {
+		FiniteAutomaton rA = null, rB = null;
+		// RABIT may change rA and rB, so every check has its own copies
+		if(options.parallel || !options.spot) {
+			rA = UtilRABIT.toRABITNBA(A);
+			rB = UtilRABIT.toRABITNBA(B);
+		}
+		return UtilComplement.checkInclusion(options, target.getAlphabet(), A, B, rA, rB);
+	}
+	
+	// exactly one of A and B accepts the word
+	private boolean isCounterexample(NBA A, NBA B, Pair<Word, Word> word) {
+		if(word.getRight().isEmpty()) return false;
+		return NBAOperations.accepts(A, word.getLeft(), word.getRight())
+			!= NBAOperations.accepts(B, word.getLeft(), word.getRight());
+	}
 
 }
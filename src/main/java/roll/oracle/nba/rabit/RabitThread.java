@@ -27,8 +27,25 @@ public class RabitThread extends Thread implements IsIncluded {
 		this.options = options;
 	}
 	
+	// runs RABIT in a new thread, which is stopped once the calling thread
+	// is interrupted since RABIT itself never checks for interrupts
+	public static RabitThread check(Alphabet alphabet, FiniteAutomaton a, FiniteAutomaton b
+			, Options options) throws InterruptedException {
+		RabitThread rabitThread = new RabitThread(alphabet, a, b, options);
+		rabitThread.setDaemon(true);
+		rabitThread.start();
+		try {
+			rabitThread.join();
+		} catch (InterruptedException e) {
+			rabitThread.interrupt();
+			throw e;
+		}
+		return rabitThread;
+	}
+	
+	// not synchronized, so that a thread joining this one can be interrupted
 	@Override
-	public synchronized void run() {
+	public void run() {
 		// note that RABIT may change this two automata
 		result = RABIT.isIncluded(rA, rB);
 		if(! result) {
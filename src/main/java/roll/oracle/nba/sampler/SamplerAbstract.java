@@ -16,15 +16,11 @@
 
 package roll.oracle.nba.sampler;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
-import gnu.trove.procedure.TIntProcedure;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
-import roll.automata.StateNFA;
 import roll.util.Pair;
-import roll.util.sets.ISet;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -33,6 +29,7 @@ import roll.util.sets.ISet;
 public abstract class SamplerAbstract implements Sampler {
     
     protected NBA nba;
+    protected FrozenNFA frozen;
     protected final long numOfSamples;
     
     public SamplerAbstract(double epsilon, double delta) {
@@ -45,34 +42,21 @@ public abstract class SamplerAbstract implements Sampler {
         return num;
     }
     
-    protected Pair<Integer, StateNFA> rNext(NBA nba, int s) {
-        // uniformly pick the successor
-        List<Pair<Integer, StateNFA>> nexts = new ArrayList<>();
-        StateNFA curr = nba.getState(s);
-        TIntProcedure procedure = new TIntProcedure() {
-            @Override
-            public boolean execute(int letter) {
-                ISet succs = curr.getSuccessors(letter);
-                for (int succ : succs) {
-                    nexts.add(new Pair<>(letter, nba.getState(succ)));
-                }
-                // for every key
-                return true;
-            }
-        };
-        // add every pair of outgoing transitions
-        curr.forEachEnabledLetter(procedure);
-        // pick a state randomly
-        if(nexts.size() <= 0) {
+    // returns a pair of letter and successor
+    protected Pair<Integer, Integer> rNext(FrozenNFA nba, int s) {
+        // uniformly pick one of the outgoing transitions
+        final int begin = nba.getOutBegin(s);
+        final int end = nba.getOutEnd(s);
+        if(end <= begin) {
             throw new UnsupportedOperationException("Every state should have at least one successor");
         }
-        int sNr = ThreadLocalRandom.current().nextInt(0, nexts.size());
-        assert sNr < nexts.size();
-        return nexts.get(sNr);
+        int index = ThreadLocalRandom.current().nextInt(begin, end);
+        return new Pair<>(nba.getLetterAt(s, index), nba.getSuccessorAt(index));
     }
     
     public void setNBA(NBA nba) {
         this.nba = nba;
+        this.frozen = nba.freeze();
     }
     
     @Override
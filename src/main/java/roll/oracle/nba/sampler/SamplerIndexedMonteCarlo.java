@@ -23,7 +23,6 @@ import java.util.concurrent.ThreadLocalRandom;
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
 import roll.automata.NBA;
-import roll.automata.StateNFA;
 import roll.util.Pair;
 import roll.words.Alphabet;
 import roll.words.Word;
@@ -75,7 +74,7 @@ public class SamplerIndexedMonteCarlo extends SamplerAbstract {
             throw new UnsupportedOperationException("Set NBA first before sampling");
         }
         // start sampling
-        int s = nba.getInitialState();
+        int s = frozen.getInitialState();
         if(K == -1) K = nba.getStateSize(); // set it as default
         int i = 0, f = -1;
         TIntIntMap hTable = new TIntIntHashMap();
@@ -100,12 +99,12 @@ public class SamplerIndexedMonteCarlo extends SamplerAbstract {
             // TODO, randomly choose one appreance
             // record last appearance
             hTable.put(s, i); 
-            if (nba.isFinal(s)) {
+            if (frozen.isFinal(s)) {
                 f = i;
             }
-            Pair<Integer, StateNFA> pair = rNext(nba, s);
+            Pair<Integer, Integer> pair = rNext(frozen, s);
             wList.add(pair.getLeft());
-            s = pair.getRight().getId();
+            s = pair.getRight();
             ++i;
         }
 
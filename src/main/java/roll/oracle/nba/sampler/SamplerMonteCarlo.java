@@ -21,7 +21,6 @@ import java.util.List;
 
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
-import roll.automata.StateNFA;
 import roll.util.Pair;
 import roll.words.Word;
 
@@ -53,18 +52,18 @@ public class SamplerMonteCarlo extends SamplerAbstract {
             throw new UnsupportedOperationException("Set NBA first before sampling");
         }
         // start sampling
-        int s = nba.getInitialState();
+        int s = frozen.getInitialState();
         int i = 0, f = -1;
         TIntIntMap hTable = new TIntIntHashMap();
         List<Integer> wList = new ArrayList<>();
         while (!hTable.containsKey(s)) {
             hTable.put(s, i);
-            if (nba.isFinal(s)) {
+            if (frozen.isFinal(s)) {
                 f = i;
             }
-            Pair<Integer, StateNFA> pair = rNext(nba, s);
+            Pair<Integer, Integer> pair = rNext(frozen, s);
             wList.add(pair.getLeft());
-            s = pair.getRight().getId();
+            s = pair.getRight();
             ++i;
         }
 
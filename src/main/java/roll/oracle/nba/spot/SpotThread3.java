@@ -108,8 +108,9 @@ public class SpotThread3 implements Callable<IsIncluded>, IsIncluded {
 
 	@Override
 	public IsIncluded call() throws Exception {
-		File fileA = new File("A.hoa");
-		File fileB = new File("B.hoa");
+		// several checks may run at the same time, each one has its own files
+		File fileA = File.createTempFile("roll-A", ".hoa");
+		File fileB = File.createTempFile("roll-B", ".hoa");
 		int numBits = UtilHelper.getNumBits(spotA.getAlphabetSize());
 		try {
 			Function<Integer, String> apList = x -> "a" + x;
@@ -121,6 +122,8 @@ public class SpotThread3 implements Callable<IsIncluded>, IsIncluded {
 			e.printStackTrace();
 		}
 		String ceStr = spot.is_included(fileA.getAbsolutePath(), fileB.getAbsolutePath());
+		fileA.delete();
+		fileB.delete();
 		Function<String, Integer> revApList = str -> Integer.parseInt(str.substring(1));
 		counterexample = parse(spot, spotA.getAlphabet(), ceStr, numBits, revApList);
 		if (counterexample == null) {
@@ -81,6 +81,11 @@ public class ExprValueWordPair implements ExprValue {
 		return wordRight;
 	}
 
+	@Override
+	public int hashCode() {
+		return 31 * wordLeft.hashCode() + wordRight.hashCode();
+	}
+
     @Override
     public int compareTo(ExprValue arg) {
         assert arg instanceof ExprValueWordPair;
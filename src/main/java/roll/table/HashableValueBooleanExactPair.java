@@ -31,5 +31,10 @@ public class HashableValueBooleanExactPair extends HashableValueBooleanPair {
 	    boolean right = (Boolean)rvalue.getRight();
 		return left == this.getLeft() && right == this.getRight();
 	}
+	
+	@Override
+	public int valueHashCode() {
+		return hashCode();
+	}
 
 }
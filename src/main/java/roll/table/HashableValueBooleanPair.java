@@ -65,6 +65,12 @@ public class HashableValueBooleanPair implements HashableValue {
 		return value;
 	}
 
+	// valueEqual only compares whether both values are true
+	@Override
+	public int valueHashCode() {
+		return isAccepting() ? 0 : 1;
+	}
+	
 	@Override
 	public boolean isPair() {
 		return true;
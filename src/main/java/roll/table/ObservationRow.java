@@ -51,6 +51,27 @@ public interface ObservationRow {
 		return true;
 	}
 	
+	// hash code of the values, rows with equal values have the same hash code
+	default int valuesHashCode() {
+		List<HashableValue> values = getValues();
+		int hashCode = 0;
+		for(int valNr = 0; valNr < values.size(); valNr ++) {
+			hashCode += getValueHashCode(valNr, values.get(valNr));
+		}
+		return hashCode;
+	}
+	
+	// the hash code of a row is the sum of the ones of its cells,
+	// so it can be updated when a single value changes
+	static int getValueHashCode(int index, HashableValue value) {
+		if(value == null) return 0;
+		int hashCode = index * 0x9E3779B9 + value.valueHashCode();
+		hashCode ^= hashCode >>> 16;
+		hashCode *= 0x85EBCA6B;
+		hashCode ^= hashCode >>> 13;
+		return hashCode;
+	}
+	
 	void set(int index, HashableValue value);
 	
 	void clear();
@@ -16,7 +16,9 @@
 
 package roll.table;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -24,17 +26,39 @@ import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * As long as all values are HashableValueBoolean, they are packed into
+ * bits, one per cell. Once another kind of value is set, the row falls
+ * back to a list of values.
  * */
 // can not be instantiated
 public abstract class ObservationRowAbstract implements ObservationRow {
 
+	private static final HashableValueBoolean TRUE = new HashableValueBoolean(true);
+	private static final HashableValueBoolean FALSE = new HashableValueBoolean(false);
+	
 	protected final Word word;
-	protected List<HashableValue> values;
+	protected List<HashableValue> values; // null if values are packed
+	protected int valuesHashCode;
+	
+	// packed values, a cell is null if not set in nonNulls
+	private long[] bits;
+	private long[] nonNulls;
+	private int size;
+	private final List<HashableValue> packedValues;
+	
+	// the table containing this row, notified when the values change
+	ObservationTableAbstract table;
+	int upperIndex = -1; // index in the upper table, -1 for lower rows
+	int lowerNr = -1;     // order of lower rows, -1 for upper rows
+	boolean dirty;        // closedness of lower row to be checked again
 	
 	protected ObservationRowAbstract(Word word) {
 		assert word != null;
 		this.word = word;
-		this.values = new ArrayList<>();
+		this.bits = new long[1];
+		this.nonNulls = new long[1];
+		this.packedValues = new PackedValues();
 	}
 	
 	@Override
@@ -44,27 +68,152 @@ public abstract class ObservationRowAbstract implements ObservationRow {
 
     @Override
     public List<HashableValue> getValues() {
+        if(isPacked()) {
+            return packedValues;
+        }
         return Collections.unmodifiableList(values);
     }
     
+    public boolean isPacked() {
+        return values == null;
+    }
+    
+    private HashableValue getPackedValue(int index) {
+        if((nonNulls[index >>> 6] & (1L << index)) == 0) {
+            return null;
+        }
+        return (bits[index >>> 6] & (1L << index)) != 0 ? TRUE : FALSE;
+    }
+    
+    private class PackedValues extends AbstractList<HashableValue> {
+        @Override
+        public HashableValue get(int index) {
+            if(index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return isPacked() ? getPackedValue(index) : values.get(index);
+        }
+
+        @Override
+        public int size() {
+            return isPacked() ? size : values.size();
+        }
+    }
+    
+    @Override
+    public int valuesHashCode() {
+        return valuesHashCode;
+    }
+    
+    @Override
+    public boolean valuesEqual(ObservationRow other) {
+        if(valuesHashCode != other.valuesHashCode()) {
+            return false;
+        }
+        if(isPacked() && other instanceof ObservationRowAbstract
+        && ((ObservationRowAbstract)other).isPacked()) {
+            ObservationRowAbstract row = (ObservationRowAbstract)other;
+            assert size == row.size;
+            final int numWords = (size + 63) >>> 6;
+            for(int i = 0; i < numWords; i ++) {
+                if(bits[i] != row.bits[i] || nonNulls[i] != row.nonNulls[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return ObservationRow.super.valuesEqual(other);
+    }
+    
+    @Override
+    public boolean covers(ObservationRow other) {
+        if(isPacked() && other instanceof ObservationRowAbstract
+        && ((ObservationRowAbstract)other).isPacked()) {
+            ObservationRowAbstract row = (ObservationRowAbstract)other;
+            assert size == row.size;
+            final int numWords = (size + 63) >>> 6;
+            for(int i = 0; i < numWords; i ++) {
+                if((row.bits[i] & ~bits[i]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return ObservationRow.super.covers(other);
+    }
+    
     public String toString() {
         return word.toString();
     }
     
     public void add(HashableValue value) {
-        values.add(value);
+        set(isPacked() ? size : values.size(), value);
     }
     
     public void set(int index, HashableValue value) {
         assert index >= 0;
-        while(values.size() <= index) {
-            values.add(null);
+        final int oldHashCode = valuesHashCode;
+        if(isPacked() && (value == null || value.getClass() == HashableValueBoolean.class)) {
+            setPackedValue(index, value);
+        }else {
+            if(isPacked()) {
+                unpack();
+            }
+            while(values.size() <= index) {
+                values.add(null);
+            }
+            valuesHashCode += ObservationRow.getValueHashCode(index, value)
+                    - ObservationRow.getValueHashCode(index, values.get(index));
+            values.set(index, value);
+        }
+        if(table != null) {
+            table.updateRow(this, oldHashCode);
         }
-        values.set(index, value);
+    }
+    
+    private void setPackedValue(int index, HashableValue value) {
+        final int wordNr = index >>> 6;
+        if(wordNr >= bits.length) {
+            final int length = Math.max(wordNr + 1, 2 * bits.length);
+            bits = Arrays.copyOf(bits, length);
+            nonNulls = Arrays.copyOf(nonNulls, length);
+        }
+        HashableValue oldValue = index < size ? getPackedValue(index) : null;
+        valuesHashCode += ObservationRow.getValueHashCode(index, value)
+                - ObservationRow.getValueHashCode(index, oldValue);
+        final long mask = 1L << index;
+        if(value == null) {
+            nonNulls[wordNr] &= ~mask;
+        }else {
+            nonNulls[wordNr] |= mask;
+        }
+        if(value != null && value.isAccepting()) {
+            bits[wordNr] |= mask;
+        }else {
+            bits[wordNr] &= ~mask;
+        }
+        size = Math.max(size, index + 1);
+    }
+    
+    private void unpack() {
+        values = new ArrayList<>(size);
+        for(int index = 0; index < size; index ++) {
+            values.add(getPackedValue(index));
+        }
+        bits = null;
+        nonNulls = null;
     }
 
     public void clear() {
-        values.clear();
+        final int oldHashCode = valuesHashCode;
+        values = null;
+        bits = new long[1];
+        nonNulls = new long[1];
+        size = 0;
+        valuesHashCode = 0;
+        if(table != null) {
+            table.updateRow(this, oldHashCode);
+        }
     }
 
 }
@@ -18,12 +18,32 @@ package roll.table;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
 import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Rows and columns are indexed by their words, and rows also by the
+ * hash codes of their values, so the lookups do not scan the table. The rows
+ * must be ObservationRowAbstract objects added through putUpperRow and
+ * putLowerRow, which notify the table when their values change.
+ * 
+ * The lower rows without equal upper rows are kept in unclosedRows. Only
+ * the rows whose values or whose equal upper rows have changed since the
+ * last call of getFirstUnclosedLowerRow are checked again.
  * */
 public abstract class ObservationTableAbstract implements ObservationTable {
 
@@ -31,10 +51,31 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 	protected final List<ObservationRow> lowerTable; // SA
 	protected final List<ExprValue> columns;    // E
 	
+	private final Map<Word, ObservationRow> upperRows;
+	private final Map<Word, ObservationRow> lowerRows;
+	private final Map<ExprValue, Integer> columnIndices;
+	// hash code of values -> indices of the upper rows in increasing order
+	private final TIntObjectMap<List<Integer>> upperIndices;
+	// hash code of values -> lower rows
+	private final TIntObjectMap<Set<ObservationRowAbstract>> lowerIndices;
+	
+	private int numLowerRows;
+	private final TreeSet<ObservationRowAbstract> unclosedRows;
+	private final List<ObservationRowAbstract> dirtyRows;
+	private final TIntSet dirtyHashCodes; // hash codes of changed upper rows
+	
 	protected ObservationTableAbstract() {
 		this.upperTable = new ArrayList<>();
 		this.lowerTable = new ArrayList<>();
 		this.columns = new ArrayList<>();
+		this.upperRows = new HashMap<>();
+		this.lowerRows = new HashMap<>();
+		this.columnIndices = new HashMap<>();
+		this.upperIndices = new TIntObjectHashMap<>();
+		this.lowerIndices = new TIntObjectHashMap<>();
+		this.unclosedRows = new TreeSet<>(Comparator.comparingInt(row -> row.lowerNr));
+		this.dirtyRows = new ArrayList<>();
+		this.dirtyHashCodes = new TIntHashSet();
 	}
 	
 	@Override
@@ -69,39 +110,28 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 		return result;
 	}
 	
-	private ObservationRow getTableRow(List<ObservationRow> rows, Word word) {
-		for(ObservationRow row : rows) {
-			if(row.getWord().equals(word)) return row;
-		}
-		return null;
-	}
-	
 	public ObservationRow getUpperTableRow(Word word) {
-		return getTableRow(getUpperTable(), word);
+		return upperRows.get(word);
 	}
 	
 	public ObservationRow getLowerTableRow(Word word) {
-		return getTableRow(getLowerTable(), word);
+		return lowerRows.get(word);
 	}
 	
 	public int getColumnIndex(ExprValue column) {
-		for(int index = 0; index < getColumns().size() ; index ++) {
-			if(getColumns().get(index).valueEqual(column)) return index;
-		}
-		return -1;
+		Integer index = columnIndices.get(column);
+		return index == null ? -1 : index;
 	}
 	
 	public boolean addUpperTableValue(Word state, ExprValue column, HashableValue value) {
-		return addTableValue(getUpperTable(), state, column, value);
+		return addTableValue(getUpperTableRow(state), column, value);
 	}
 	
 	public boolean addLowerTableValue(Word state, ExprValue column, HashableValue value) {
-		return addTableValue(getLowerTable(), state, column, value);
+		return addTableValue(getLowerTableRow(state), column, value);
 	}
 	
-	private boolean addTableValue(List<ObservationRow> rows, Word state
-			, ExprValue column, HashableValue value) {
-		ObservationRow row = getTableRow(rows, state);
+	private boolean addTableValue(ObservationRow row, ExprValue column, HashableValue value) {
 		if(row == null) return false;
 		int columnIndex = getColumnIndex(column);
 		if(columnIndex == -1) return false;
@@ -114,37 +144,166 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 			|| addLowerTableValue(state, column, value);
 	}
 	
+	// index of the upper row of word, or of the first upper row
+	// with the same values as the lower row of word
     public int getUpperTableRowIndex(Word word) {
-        for(int index = 0; index < getUpperTable().size(); index ++) {
-            ObservationRow upperRow = getUpperTable().get(index);
-            if(upperRow.getWord().equals(word)) {
-                return index;
-            }
+        ObservationRow upperRow = getUpperTableRow(word);
+        if(upperRow != null) {
+            return getUpperIndex(upperRow);
         }
         // search in lower table
         ObservationRow lowerRow = getLowerTableRow(word);
         if(lowerRow == null) {
             return -1;
         }
-        for(int index = 0; index < getUpperTable().size(); index ++) {
-            ObservationRow upperRow = getUpperTable().get(index);
-            if(lowerRow.valuesEqual(upperRow)) {
+        return getEqualUpperRowIndex(lowerRow);
+    }
+    
+    // index of the first upper row with the same values as row, -1 if not exists
+    protected int getEqualUpperRowIndex(ObservationRow row) {
+        List<Integer> indices = upperIndices.get(row.valuesHashCode());
+        if(indices == null) {
+            return -1;
+        }
+        for(int index : indices) {
+            if(row.valuesEqual(upperTable.get(index))) {
                 return index;
             }
         }
         return -1;
     }
+    
+    private int getUpperIndex(ObservationRow row) {
+        return ((ObservationRowAbstract)row).upperIndex;
+    }
+    
+    private void addUpperIndex(int hashCode, int index) {
+        List<Integer> indices = upperIndices.get(hashCode);
+        if(indices == null) {
+            indices = new ArrayList<>(1);
+            upperIndices.put(hashCode, indices);
+        }
+        int pos = Collections.binarySearch(indices, index);
+        assert pos < 0;
+        indices.add(-pos - 1, index);
+    }
+    
+    private void removeUpperIndex(int hashCode, int index) {
+        List<Integer> indices = upperIndices.get(hashCode);
+        int pos = Collections.binarySearch(indices, index);
+        assert pos >= 0;
+        indices.remove(pos);
+        if(indices.isEmpty()) {
+            upperIndices.remove(hashCode);
+        }
+    }
+    
+    private void addLowerIndex(ObservationRowAbstract row) {
+        Set<ObservationRowAbstract> rows = lowerIndices.get(row.valuesHashCode());
+        if(rows == null) {
+            rows = Collections.newSetFromMap(new IdentityHashMap<>());
+            lowerIndices.put(row.valuesHashCode(), rows);
+        }
+        rows.add(row);
+    }
+    
+    private void removeLowerIndex(int hashCode, ObservationRowAbstract row) {
+        Set<ObservationRowAbstract> rows = lowerIndices.get(hashCode);
+        rows.remove(row);
+        if(rows.isEmpty()) {
+            lowerIndices.remove(hashCode);
+        }
+    }
+    
+    private void setDirty(ObservationRowAbstract row) {
+        if(! row.dirty) {
+            row.dirty = true;
+            dirtyRows.add(row);
+        }
+    }
+    
+    // called by the rows of this table once their values have changed
+    protected void updateRow(ObservationRowAbstract row, int oldHashCode) {
+        if(row.upperIndex >= 0) {
+            if(row.valuesHashCode() != oldHashCode) {
+                removeUpperIndex(oldHashCode, row.upperIndex);
+                addUpperIndex(row.valuesHashCode(), row.upperIndex);
+            }
+            dirtyHashCodes.add(oldHashCode);
+            dirtyHashCodes.add(row.valuesHashCode());
+        }else {
+            if(row.valuesHashCode() != oldHashCode) {
+                removeLowerIndex(oldHashCode, row);
+                addLowerIndex(row);
+            }
+            setDirty(row);
+        }
+    }
+    
+    // the first lower row without equal upper row, null if the table is closed
+    protected ObservationRow getFirstUnclosedLowerRow() {
+        TIntIterator iterator = dirtyHashCodes.iterator();
+        while(iterator.hasNext()) {
+            Set<ObservationRowAbstract> rows = lowerIndices.get(iterator.next());
+            if(rows == null) continue;
+            for(ObservationRowAbstract row : rows) {
+                setDirty(row);
+            }
+        }
+        dirtyHashCodes.clear();
+        for(ObservationRowAbstract row : dirtyRows) {
+            row.dirty = false;
+            if(row.lowerNr < 0) continue; // already in upper table
+            if(getEqualUpperRowIndex(row) < 0) {
+                unclosedRows.add(row);
+            }else {
+                unclosedRows.remove(row);
+            }
+        }
+        dirtyRows.clear();
+        return unclosedRows.isEmpty() ? null : unclosedRows.first();
+    }
+    
+    protected void putUpperRow(ObservationRow row) {
+        ObservationRowAbstract upperRow = (ObservationRowAbstract)row;
+        assert upperRow.table == null || upperRow.table == this;
+        upperRow.table = this;
+        upperRow.upperIndex = upperTable.size();
+        upperTable.add(upperRow);
+        upperRows.putIfAbsent(upperRow.getWord(), upperRow);
+        addUpperIndex(upperRow.valuesHashCode(), upperRow.upperIndex);
+        dirtyHashCodes.add(upperRow.valuesHashCode());
+    }
+    
+    protected void putLowerRow(ObservationRow row) {
+        ObservationRowAbstract lowerRow = (ObservationRowAbstract)row;
+        assert lowerRow.table == null;
+        lowerRow.table = this;
+        lowerRow.lowerNr = numLowerRows ++;
+        lowerTable.add(lowerRow);
+        lowerRows.putIfAbsent(lowerRow.getWord(), lowerRow);
+        addLowerIndex(lowerRow);
+        setDirty(lowerRow);
+    }
 
 	@Override
 	public void moveRowFromLowerToUpper(ObservationRow row) {
+		ObservationRowAbstract lowerRow = (ObservationRowAbstract)row;
 		lowerTable.remove(row);
-		upperTable.add(row);
+		if(lowerRows.get(row.getWord()) == row) {
+		    lowerRows.remove(row.getWord());
+		}
+		removeLowerIndex(lowerRow.valuesHashCode(), lowerRow);
+		unclosedRows.remove(lowerRow);
+		lowerRow.lowerNr = -1;
+		putUpperRow(row);
 	}
 	
 	@Override
 	public int addColumn(ExprValue column) {
 		int index = columns.size();
 		columns.add(column);
+		columnIndices.putIfAbsent(column, index);
 		assert columns.get(index).equals(column);
 		assert columns.indexOf(column) == index : "new column to be added: " + column;
 		return index;
@@ -152,14 +311,30 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 	
 	public void clear() {
 		for(ObservationRow row : this.upperTable) {
+		    ((ObservationRowAbstract)row).table = null;
+		    ((ObservationRowAbstract)row).upperIndex = -1;
 			row.clear();
 		}
 		this.upperTable.clear();
 		for(ObservationRow row : this.lowerTable) {
+		    ((ObservationRowAbstract)row).table = null;
+		    ((ObservationRowAbstract)row).lowerNr = -1;
 			row.clear();
 		}
 		this.lowerTable.clear();
 		this.columns.clear();
+		this.upperRows.clear();
+		this.lowerRows.clear();
+		this.columnIndices.clear();
+		this.upperIndices.clear();
+		this.lowerIndices.clear();
+		this.numLowerRows = 0;
+		this.unclosedRows.clear();
+		for(ObservationRowAbstract row : this.dirtyRows) {
+		    row.dirty = false;
+		}
+		this.dirtyRows.clear();
+		this.dirtyHashCodes.clear();
 	}
 	
 }
@@ -32,20 +32,7 @@ public abstract class ObservationTableBase extends ObservationTableAbstract {
 	
 	@Override
 	public ObservationRow getUnclosedLowerRow() {
-		for(ObservationRow lowerRow : lowerTable) {
-			boolean found = false;
-			// found equal upper row
-			for(ObservationRow upperRow : upperTable) {
-				if(lowerRow.valuesEqual(upperRow)) { 
-					found = true;
-					break;
-				}
-			}
-			if(!found) {
-				return lowerRow;
-			}
-		}
-		return null;
+		return getFirstUnclosedLowerRow();
 	}
 
 	// row(s1) = row(s2) then it should be row(s1.a) = row(s2.a) for every a
@@ -69,14 +56,14 @@ public abstract class ObservationTableBase extends ObservationTableAbstract {
 	@Override
 	public ObservationRowBase addLowerRow(Word word) {
 		ObservationRowBase row = getRowInstance(word);
-		lowerTable.add(row);
+		putLowerRow(row);
 		return row;
 	}
 
 	@Override
 	public ObservationRowBase addUpperRow(Word word) {
 		ObservationRowBase row = getRowInstance(word);
-		upperTable.add(row);
+		putUpperRow(row);
 		return row;
 	}
 	
@@ -49,6 +49,13 @@ public class Pair<L, R> implements IHTML {
 		return false;
 	}
 	
+	@Override
+	public int hashCode() {
+	    int leftHash = left == null ? 0 : left.hashCode();
+	    int rightHash = right == null ? 0 : right.hashCode();
+	    return 31 * leftHash + rightHash;
+	}
+	
 	@Override
 	public String toString() {
 		return "(" + left.toString() + ", " + right.toString() + ")";
@@ -19,6 +19,10 @@
 
 package roll.util.sets;
 
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
+
 //In order to keep the original code as much as possible, we
 //use the interface of BitSet
 public interface ISet extends Iterable<Integer> {
@@ -71,5 +75,25 @@ public interface ISet extends Iterable<Integer> {
     boolean contentEq(ISet set);
     
     Object get();
+    
+    // primitive iteration without Integer boxing
+    IntIterator intIterator();
+    
+    default void forEachInt(IntConsumer action) {
+        IntIterator iter = intIterator();
+        while(iter.hasNext()) {
+            action.accept(iter.nextInt());
+        }
+    }
+    
+    default int[] toIntArray() {
+        int[] elems = new int[cardinality()];
+        int index = 0;
+        IntIterator iter = intIterator();
+        while(iter.hasNext()) {
+            elems[index ++] = iter.nextInt();
+        }
+        return elems;
+    }
 
 }
@@ -21,6 +21,9 @@ package roll.util.sets;
 
 import java.util.BitSet;
 import java.util.Iterator;
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
 
 public class ISetBits implements ISet {
 	
@@ -40,37 +43,50 @@ public class ISetBits implements ISet {
 		bits.mSet = (BitSet) mSet.clone();
 		return bits;
 	}
+	
+	// operands of other representations are converted or iterated
+	private static BitSet toBitSet(ISet set) {
+		if(set instanceof ISetBits) {
+			return ((ISetBits)set).mSet;
+		}
+		BitSet bits = new BitSet();
+		for(final int elem : set) {
+			bits.set(elem);
+		}
+		return bits;
+	}
 
 	@Override
 	public void andNot(ISet set) {
-		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(set instanceof ISetBits) {
+			this.mSet.andNot(((ISetBits)set).mSet);
+			return;
+		}
+		for(final int elem : set) {
+			mSet.clear(elem);
 		}
-		BitSet bits = (BitSet) set.get();
-		this.mSet.andNot(bits);
 	}
 
 	@Override
 	public void and(ISet set) {
-		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
-		}
-		BitSet bits = (BitSet) set.get();
-		this.mSet.and(bits);
+		this.mSet.and(toBitSet(set));
 	}
 
 	@Override
 	public void or(ISet set) {
-		if(! (set instanceof ISetBits)) {
-			throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(set instanceof ISetBits) {
+			this.mSet.or(((ISetBits)set).mSet);
+			return;
+		}
+		for(final int elem : set) {
+			mSet.set(elem);
 		}
-		BitSet bits = (BitSet) set.get();
-		this.mSet.or(bits);		
 	}
 
 	@Override
 	public boolean get(int value) {
-		return mSet.get(value);
+		// undefined successors are denoted by -1
+		return value >= 0 && mSet.get(value);
 	}
 	
 	@Override
@@ -80,7 +96,7 @@ public class ISetBits implements ISet {
 
 	@Override
 	public void clear(int value) {
-		mSet.clear(value);
+		if(value >= 0) mSet.clear(value);
 	}
 	
 	@Override
@@ -100,32 +116,35 @@ public class ISetBits implements ISet {
 	
 	@Override
 	public boolean overlap(ISet set) {
-		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(set instanceof ISetBits) {
+			return ((ISetBits)set).mSet.intersects(this.mSet);
+		}
+		for(final int elem : set) {
+			if(mSet.get(elem)) return true;
 		}
-		ISetBits temp = (ISetBits) set;
-		return temp.mSet.intersects(this.mSet);
+		return false;
 	}
 	
 
 	@Override
 	public boolean subsetOf(ISet set) {
-		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(set instanceof ISetBits) {
+			BitSet temp = (BitSet) this.mSet.clone();
+			temp.andNot(((ISetBits)set).mSet);
+			return temp.isEmpty();
 		}
-		BitSet temp = (BitSet) this.mSet.clone();
-		BitSet bits = (BitSet) set.get();
-		temp.andNot(bits);
-		return temp.isEmpty();
+		for(int elem = mSet.nextSetBit(0); elem >= 0; elem = mSet.nextSetBit(elem + 1)) {
+			if(! set.get(elem)) return false;
+		}
+		return true;
 	}
 
 	@Override
 	public boolean contentEq(ISet set) {
-		if(! (set instanceof ISetBits)) {
-			throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(set instanceof ISetBits) {
+			return this.mSet.equals(((ISetBits)set).mSet);
 		}
-		BitSet bits = (BitSet) set.get();
-		return this.mSet.equals(bits);
+		return cardinality() == set.cardinality() && subsetOf(set);
 	}
 
 	@Override
@@ -139,14 +158,13 @@ public class ISetBits implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetBits bits = (ISetBits)obj;
-		return this.contentEq(bits);
+		return this.contentEq((ISet)obj);
 	}
 	
-	public static class BitsIterator implements Iterator<Integer> {
+	public static class BitsIterator implements Iterator<Integer>, IntIterator {
 
 		private BitSet mBits;
 		private int mIndex;
@@ -161,6 +179,10 @@ public class ISetBits implements ISet {
 		}
 		
 		public Integer next() {
+			return nextInt();
+		}
+		
+		public int nextInt() {
 			int rv = mIndex;
 			mIndex = mBits.nextSetBit(mIndex + 1);
 			return rv;
@@ -172,13 +194,33 @@ public class ISetBits implements ISet {
         return new BitsIterator(this);
     }
     
+    @Override
+    public IntIterator intIterator() {
+        return new BitsIterator(this);
+    }
+    
+    @Override
+    public void forEachInt(IntConsumer action) {
+        for(int n = mSet.nextSetBit(0); n >= 0; n = mSet.nextSetBit(n + 1)) {
+            action.accept(n);
+        }
+    }
+    
+    @Override
+    public int[] toIntArray() {
+        int[] elems = new int[mSet.cardinality()];
+        int index = 0;
+        for(int n = mSet.nextSetBit(0); n >= 0; n = mSet.nextSetBit(n + 1)) {
+            elems[index ++] = n;
+        }
+        return elems;
+    }
+    
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        Iterator<Integer> iter = this.iterator();
-        while(iter.hasNext()) {
-            int n = iter.next();
+        for(int n = mSet.nextSetBit(0); n >= 0; n = mSet.nextSetBit(n + 1)) {
             result = prime * result + n;
         }
         return result;
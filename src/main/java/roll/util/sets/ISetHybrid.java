@@ -0,0 +1,492 @@
+/*
+ * Written by Yong Li (liyong@ios.ac.cn)
+ * This file is part of the Buchi.
+ * 
+ * Buchi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Buchi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Buchi. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package roll.util.sets;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
+
+/**
+ * Hybrid integer set: elements are kept in a sorted int array while the
+ * set is sparse, and in a bitmap of 64-bit words once the array would take
+ * more memory than the bitmap covering the same range. Operations work on
+ * operands of any ISet representation.
+ * */
+public class ISetHybrid implements ISet {
+	
+	// array representation: mElems[0 .. mSize) sorted ascending
+	private int[] mElems;
+	private int mSize;
+	// bitmap representation, used iff mWords != null
+	private long[] mWords;
+	
+	private static final int[] EMPTY = new int[0];
+	
+	public ISetHybrid() {
+		mElems = EMPTY;
+		mSize = 0;
+		mWords = null;
+	}
+	
+	private boolean isBitmap() {
+		return mWords != null;
+	}
+
+	@Override
+	public ISet clone() {
+		ISetHybrid copy = new ISetHybrid();
+		if(isBitmap()) {
+			copy.mWords = mWords.clone();
+			copy.mSize = mSize;
+		}else {
+			copy.mElems = Arrays.copyOf(mElems, mSize);
+			copy.mSize = mSize;
+		}
+		return copy;
+	}
+	
+	// ------------------------------------------------------------
+	// representation changes
+	
+	// the array costs 32 bits per element, the bitmap one bit per value up to the maximum
+	private void adjust() {
+		if(isBitmap()) {
+			int max = lastBitmap();
+			if(mSize * 64L < max + 1L) {
+				toArray();
+			}
+		}else if(mSize > 0 && mSize * 32L > mElems[mSize - 1] + 64L) {
+			toBitmap();
+		}
+	}
+	
+	private void toBitmap() {
+		long[] words = new long[mSize == 0 ? 1 : (mElems[mSize - 1] >>> 6) + 1];
+		for(int i = 0; i < mSize; i ++) {
+			words[mElems[i] >>> 6] |= 1L << mElems[i];
+		}
+		mWords = words;
+		mElems = EMPTY;
+	}
+	
+	private void toArray() {
+		int[] elems = new int[mSize];
+		int index = 0;
+		for(int i = 0; i < mWords.length; i ++) {
+			long word = mWords[i];
+			while(word != 0) {
+				elems[index ++] = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		mElems = elems;
+		mWords = null;
+	}
+	
+	private int lastBitmap() {
+		for(int i = mWords.length - 1; i >= 0; i --) {
+			if(mWords[i] != 0) {
+				return (i << 6) + 63 - Long.numberOfLeadingZeros(mWords[i]);
+			}
+		}
+		return -1;
+	}
+	
+	private void recount() {
+		int size = 0;
+		for(final long word : mWords) {
+			size += Long.bitCount(word);
+		}
+		mSize = size;
+	}
+	
+	private void ensureWords(int value) {
+		int length = (value >>> 6) + 1;
+		if(length > mWords.length) {
+			mWords = Arrays.copyOf(mWords, Math.max(length, mWords.length * 2));
+		}
+	}
+	
+	// sorted elements of an arbitrary set
+	private static int[] toSortedArray(ISet set) {
+		if(set instanceof ISetHybrid) {
+			ISetHybrid other = (ISetHybrid)set;
+			if(! other.isBitmap()) {
+				return Arrays.copyOf(other.mElems, other.mSize);
+			}
+		}
+		int[] elems = set.toIntArray();
+		for(int index = 1; index < elems.length; index ++) {
+			if(elems[index - 1] > elems[index]) {
+				Arrays.sort(elems);
+				break;
+			}
+		}
+		return elems;
+	}
+
+	// ------------------------------------------------------------
+	@Override
+	public void andNot(ISet set) {
+		if(isBitmap()) {
+			if(set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+				long[] other = ((ISetHybrid)set).mWords;
+				for(int i = 0; i < Math.min(mWords.length, other.length); i ++) {
+					mWords[i] &= ~other[i];
+				}
+				recount();
+			}else {
+				for(final int elem : set) {
+					clear(elem);
+				}
+			}
+		}else {
+			int size = 0;
+			for(int i = 0; i < mSize; i ++) {
+				if(! set.get(mElems[i])) {
+					mElems[size ++] = mElems[i];
+				}
+			}
+			mSize = size;
+		}
+		adjust();
+	}
+
+	@Override
+	public void and(ISet set) {
+		if(isBitmap()) {
+			if(set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+				long[] other = ((ISetHybrid)set).mWords;
+				for(int i = 0; i < mWords.length; i ++) {
+					mWords[i] = i < other.length ? mWords[i] & other[i] : 0;
+				}
+			}else {
+				for(int i = 0; i < mWords.length; i ++) {
+					long word = mWords[i];
+					while(word != 0) {
+						int elem = (i << 6) + Long.numberOfTrailingZeros(word);
+						if(! set.get(elem)) {
+							mWords[i] &= ~(1L << elem);
+						}
+						word &= word - 1;
+					}
+				}
+			}
+			recount();
+		}else {
+			int size = 0;
+			for(int i = 0; i < mSize; i ++) {
+				if(set.get(mElems[i])) {
+					mElems[size ++] = mElems[i];
+				}
+			}
+			mSize = size;
+		}
+		adjust();
+	}
+
+	@Override
+	public void or(ISet set) {
+		if(set.isEmpty()) return;
+		if(! isBitmap() && set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+			toBitmap();
+		}
+		if(isBitmap()) {
+			if(set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+				long[] other = ((ISetHybrid)set).mWords;
+				if(other.length > mWords.length) {
+					mWords = Arrays.copyOf(mWords, other.length);
+				}
+				for(int i = 0; i < other.length; i ++) {
+					mWords[i] |= other[i];
+				}
+				recount();
+			}else {
+				for(final int elem : set) {
+					set(elem);
+				}
+			}
+		}else {
+			// merge two sorted arrays
+			int[] other = toSortedArray(set);
+			int[] result = new int[mSize + other.length];
+			int i = 0, j = 0, k = 0;
+			while(i < mSize && j < other.length) {
+				if(mElems[i] < other[j]) {
+					result[k ++] = mElems[i ++];
+				}else if(mElems[i] > other[j]) {
+					result[k ++] = other[j ++];
+				}else {
+					result[k ++] = mElems[i ++];
+					j ++;
+				}
+			}
+			while(i < mSize) result[k ++] = mElems[i ++];
+			while(j < other.length) result[k ++] = other[j ++];
+			mElems = result;
+			mSize = k;
+		}
+		adjust();
+	}
+
+	@Override
+	public boolean get(int value) {
+		if(value < 0) return false;
+		if(isBitmap()) {
+			int index = value >>> 6;
+			return index < mWords.length && (mWords[index] & (1L << value)) != 0;
+		}
+		return Arrays.binarySearch(mElems, 0, mSize, value) >= 0;
+	}
+	
+	@Override
+	public void set(int value) {
+		if(value < 0) {
+			throw new IndexOutOfBoundsException("value < 0: " + value);
+		}
+		if(isBitmap()) {
+			ensureWords(value);
+			long mask = 1L << value;
+			if((mWords[value >>> 6] & mask) == 0) {
+				mWords[value >>> 6] |= mask;
+				mSize ++;
+			}
+			return;
+		}
+		int pos = Arrays.binarySearch(mElems, 0, mSize, value);
+		if(pos >= 0) return;
+		pos = -(pos + 1);
+		if(mSize == mElems.length) {
+			mElems = Arrays.copyOf(mElems, Math.max(4, mElems.length * 2));
+		}
+		System.arraycopy(mElems, pos, mElems, pos + 1, mSize - pos);
+		mElems[pos] = value;
+		mSize ++;
+		adjust();
+	}
+
+	@Override
+	public void clear(int value) {
+		if(value < 0) return;
+		if(isBitmap()) {
+			int index = value >>> 6;
+			long mask = 1L << value;
+			if(index < mWords.length && (mWords[index] & mask) != 0) {
+				mWords[index] &= ~mask;
+				mSize --;
+			}
+			return;
+		}
+		int pos = Arrays.binarySearch(mElems, 0, mSize, value);
+		if(pos < 0) return;
+		System.arraycopy(mElems, pos + 1, mElems, pos, mSize - pos - 1);
+		mSize --;
+	}
+	
+	@Override
+	public void clear() {
+		mElems = EMPTY;
+		mWords = null;
+		mSize = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	@Override
+	public int cardinality() {
+		return mSize;
+	}
+	
+	@Override
+	public boolean overlap(ISet set) {
+		if(isBitmap() && set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+			long[] other = ((ISetHybrid)set).mWords;
+			for(int i = 0; i < Math.min(mWords.length, other.length); i ++) {
+				if((mWords[i] & other[i]) != 0) return true;
+			}
+			return false;
+		}
+		// iterate over the smaller one
+		if(mSize <= set.cardinality()) {
+			for(final int elem : this) {
+				if(set.get(elem)) return true;
+			}
+		}else {
+			for(final int elem : set) {
+				if(get(elem)) return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean subsetOf(ISet set) {
+		if(mSize > set.cardinality()) return false;
+		if(isBitmap() && set instanceof ISetHybrid && ((ISetHybrid)set).isBitmap()) {
+			long[] other = ((ISetHybrid)set).mWords;
+			for(int i = 0; i < mWords.length; i ++) {
+				long word = i < other.length ? mWords[i] & ~other[i] : mWords[i];
+				if(word != 0) return false;
+			}
+			return true;
+		}
+		for(final int elem : this) {
+			if(! set.get(elem)) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contentEq(ISet set) {
+		return mSize == set.cardinality() && subsetOf(set);
+	}
+
+	@Override
+	public Object get() {
+		return isBitmap() ? mWords : Arrays.copyOf(mElems, mSize);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("{");
+		boolean first = true;
+		for(final int elem : this) {
+			if(! first) builder.append(", ");
+			builder.append(elem);
+			first = false;
+		}
+		builder.append("}");
+		return builder.toString();
+	}
+	
+	public boolean equals(Object obj) {
+		if(! (obj instanceof ISet)) {
+		    return false;
+		}
+		return this.contentEq((ISet)obj);
+	}
+	
+	private class HybridIterator implements Iterator<Integer>, IntIterator {
+		// position in the array or the next value in the bitmap
+		private int mIndex;
+		
+		HybridIterator() {
+			mIndex = isBitmap() ? nextBitmap(0) : 0;
+		}
+		
+		private int nextBitmap(int from) {
+			int index = from >>> 6;
+			if(index >= mWords.length) return -1;
+			long word = mWords[index] & (-1L << from);
+			while(true) {
+				if(word != 0) {
+					return (index << 6) + Long.numberOfTrailingZeros(word);
+				}
+				if(++ index >= mWords.length) return -1;
+				word = mWords[index];
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return isBitmap() ? mIndex >= 0 : mIndex < mSize;
+		}
+
+		@Override
+		public Integer next() {
+			return nextInt();
+		}
+
+		@Override
+		public int nextInt() {
+			if(! hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if(isBitmap()) {
+				int rv = mIndex;
+				mIndex = nextBitmap(mIndex + 1);
+				return rv;
+			}
+			return mElems[mIndex ++];
+		}
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new HybridIterator();
+	}
+	
+	@Override
+	public IntIterator intIterator() {
+		return new HybridIterator();
+	}
+	
+	@Override
+	public void forEachInt(IntConsumer action) {
+		if(isBitmap()) {
+			for(int index = 0; index < mWords.length; index ++) {
+				long word = mWords[index];
+				while(word != 0) {
+					action.accept((index << 6) + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+			return;
+		}
+		for(int i = 0; i < mSize; i ++) {
+			action.accept(mElems[i]);
+		}
+	}
+	
+	@Override
+	public int[] toIntArray() {
+		if(! isBitmap()) {
+			return Arrays.copyOf(mElems, mSize);
+		}
+		int[] elems = new int[mSize];
+		int i = 0;
+		for(int index = 0; index < mWords.length; index ++) {
+			long word = mWords[index];
+			while(word != 0) {
+				elems[i ++] = (index << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return elems;
+	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		for(final int n : this) {
+			result = prime * result + n;
+		}
+		return result;
+	}
+
+}
@@ -19,11 +19,14 @@
 
 package roll.util.sets;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.function.IntConsumer;
 
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
+import roll.util.IntIterator;
 
 public class ISetTIntSet implements ISet {
 	
@@ -51,7 +54,10 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void andNot(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    for(final int elem : set) {
+		        mSet.remove(elem);
+		    }
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.removeAll(temp.mSet);
@@ -60,7 +66,11 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void and(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    TIntIterator iter = mSet.iterator();
+		    while(iter.hasNext()) {
+		        if(! set.get(iter.next())) iter.remove();
+		    }
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.retainAll(temp.mSet);
@@ -69,7 +79,10 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void or(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    for(final int elem : set) {
+		        mSet.add(elem);
+		    }
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.addAll(temp.mSet);
@@ -113,7 +126,10 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public boolean subsetOf(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    for(final int elem : this) {
+		        if(! set.get(elem)) return false;
+		    }
+		    return true;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		return temp.mSet.containsAll(this.mSet);
@@ -122,7 +138,7 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public boolean contentEq(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    return cardinality() == set.cardinality() && subsetOf(set);
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		return this.mSet.equals(temp.mSet);
@@ -134,14 +150,13 @@ public class ISetTIntSet implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetTIntSet temp = (ISetTIntSet)obj;
-		return this.contentEq(temp);
+		return this.contentEq((ISet)obj);
 	}
 	
-	private static class TIntSetIterator implements Iterator<Integer> {
+	private static class TIntSetIterator implements Iterator<Integer>, IntIterator {
         
 	    private final TIntIterator iter;
 	    TIntSetIterator(TIntSet set) {
@@ -157,6 +172,11 @@ public class ISetTIntSet implements ISet {
         public Integer next() {
             return iter.next();
         }
+        
+        @Override
+        public int nextInt() {
+            return iter.next();
+        }
 	}
 	
 	@Override
@@ -164,13 +184,32 @@ public class ISetTIntSet implements ISet {
 		return new TIntSetIterator(mSet);
 	}
 	
+	@Override
+	public IntIterator intIterator() {
+	    return new TIntSetIterator(mSet);
+	}
+	
+	@Override
+	public void forEachInt(IntConsumer action) {
+	    mSet.forEach(n -> {
+	        action.accept(n);
+	        return true;
+	    });
+	}
+	
+	@Override
+	public int[] toIntArray() {
+	    return mSet.toArray();
+	}
+	
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        Iterator<Integer> iter = this.iterator();
-        while(iter.hasNext()) {
-            int n = iter.next();
+        // same order as the other representations
+        int[] elems = mSet.toArray();
+        Arrays.sort(elems);
+        for(final int n : elems) {
             result = prime * result + n;
         }
         return result;
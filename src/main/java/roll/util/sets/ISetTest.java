@@ -28,6 +28,7 @@ public class ISetTest {
 		ISetBits bits = new ISetBits();	
 		ISetTIntSet tISets = new ISetTIntSet();
 		ISetTreeSet treeSets = new ISetTreeSet();
+		ISetHybrid hybrids = new ISetHybrid();
 		
 		int num = 9100_000;
 		
@@ -37,6 +38,7 @@ public class ISetTest {
 				bits.set(i);
 				tISets.set(i);
 				treeSets.set(i);
+				hybrids.set(i);
 			}
 		}
 		
@@ -62,6 +64,14 @@ public class ISetTest {
 		cpt.set(7000_000 - 1);
 		testEq(treeSets, cpt);
 		testSubset(treeSets, cpt);
+		
+		System.out.println("test Hybrid");
+		testIterator(hybrids);
+		ISetHybrid cph = (ISetHybrid) hybrids.clone();
+		cph.set(7000_000 - 1);
+		testEq(hybrids, cph);
+		testSubset(hybrids, cph);
+		testSubset(hybrids, cpb);
 	}
 	
 	private static void testIterator(ISet set) {
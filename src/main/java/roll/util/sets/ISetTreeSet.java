@@ -21,6 +21,9 @@ package roll.util.sets;
 
 import java.util.Iterator;
 import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
 
 
 public class ISetTreeSet implements ISet {
@@ -45,7 +48,10 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void andNot(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    for(final int elem : set) {
+		        mSet.remove(elem);
+		    }
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.removeAll(temp.mSet);
@@ -54,7 +60,8 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void and(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    this.mSet.removeIf(elem -> ! set.get(elem));
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.retainAll(temp.mSet);
@@ -63,7 +70,10 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void or(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    for(final int elem : set) {
+		        mSet.add(elem);
+		    }
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.addAll(temp.mSet);
@@ -107,7 +117,10 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public boolean subsetOf(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet, but it is " + set.getClass());
+		    for(final int elem : this) {
+		        if(! set.get(elem)) return false;
+		    }
+		    return true;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		return temp.mSet.containsAll(this.mSet);
@@ -116,7 +129,7 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public boolean contentEq(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    return cardinality() == set.cardinality() && subsetOf(set);
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		return this.mSet.equals(temp.mSet);
@@ -128,11 +141,10 @@ public class ISetTreeSet implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetTreeSet temp = (ISetTreeSet)obj;
-		return this.contentEq(temp);
+		return this.contentEq((ISet)obj);
 	}
 
     @Override
@@ -140,6 +152,38 @@ public class ISetTreeSet implements ISet {
         return mSet.iterator();
     }
     
+    @Override
+    public IntIterator intIterator() {
+        final Iterator<Integer> iter = mSet.iterator();
+        return new IntIterator() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            @Override
+            public int nextInt() {
+                return iter.next();
+            }
+        };
+    }
+    
+    @Override
+    public void forEachInt(IntConsumer action) {
+        for(final int n : mSet) {
+            action.accept(n);
+        }
+    }
+    
+    @Override
+    public int[] toIntArray() {
+        int[] elems = new int[mSet.size()];
+        int index = 0;
+        for(final int n : mSet) {
+            elems[index ++] = n;
+        }
+        return elems;
+    }
+    
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -27,8 +27,35 @@ public class UtilISet {
         
     }
     
+    public static enum Representation {
+        BITS,     // java.util.BitSet
+        HYBRID,   // sorted int array for sparse sets, bitmap for dense sets
+        TREESET,  // java.util.TreeSet
+        TINTSET;  // trove hash set
+    }
+    
+    private static volatile Representation representation = Representation.BITS;
+    
+    public static void setRepresentation(Representation repr) {
+        assert repr != null;
+        representation = repr;
+    }
+    
+    public static Representation getRepresentation() {
+        return representation;
+    }
+    
     public static ISet newISet() {
-        return new ISetTreeSet();
+        switch(representation) {
+        case HYBRID:
+            return new ISetHybrid();
+        case TREESET:
+            return new ISetTreeSet();
+        case TINTSET:
+            return new ISetTIntSet();
+        default:
+            return new ISetBits();
+        }
     }
     
     public static ISet toISet(TreeSet<Integer> set) {
@@ -16,6 +16,10 @@
 
 package roll.words;
 
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
+
 // we use integer to denote each letter
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -95,6 +99,35 @@ public interface Word extends Iterable<Integer>, Comparable<Word> {
         return result;
 	}
 	
+	// primitive iteration over letters without Integer boxing
+	default IntIterator intIterator() {
+	    return new IntIterator() {
+	        private int cursor = 0;
+	        @Override
+	        public boolean hasNext() {
+	            return cursor < length();
+	        }
+	        @Override
+	        public int nextInt() {
+	            return getLetter(cursor ++);
+	        }
+	    };
+	}
+	
+	default void forEachInt(IntConsumer action) {
+	    for(int letterNr = 0; letterNr < length(); letterNr ++) {
+	        action.accept(getLetter(letterNr));
+	    }
+	}
+	
+	default int[] toIntArray() {
+	    int[] letters = new int[length()];
+	    if(letters.length > 0) {
+	        write(0, letters, 0, letters.length);
+	    }
+	    return letters;
+	}
+	
 
 	
 	
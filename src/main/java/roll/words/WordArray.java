@@ -16,8 +16,12 @@
 
 package roll.words;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntConsumer;
+
+import roll.util.IntIterator;
 
 // begin at offset 
 /**
@@ -170,12 +174,30 @@ class WordArray extends WordAbstract {
 		return new ListItr();
 	}
 
+	@Override
+	public IntIterator intIterator() {
+		return new ListItr();
+	}
+	
+	@Override
+	public void forEachInt(IntConsumer action) {
+		final int end = offset + length;
+		for(int index = offset; index < end; index ++) {
+			action.accept(elementData[index]);
+		}
+	}
+	
+	@Override
+	public int[] toIntArray() {
+		return Arrays.copyOfRange(elementData, offset, offset + length);
+	}
+
 	@Override
 	public int length() {
 		return length;
 	}
 	
-    private class ListItr implements Iterator<Integer> {
+    private class ListItr implements Iterator<Integer>, IntIterator {
 
     	private int cursor = 0;
 		@Override
@@ -196,6 +218,11 @@ class WordArray extends WordAbstract {
 			++ cursor; 
 			return getLetter(i);
 		}
+		
+		@Override
+		public int nextInt() {
+			return elementData[offset + cursor ++];
+		}
 
 		@Override
 		public void remove() {